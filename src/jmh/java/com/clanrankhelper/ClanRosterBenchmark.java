@@ -0,0 +1,58 @@
+package com.clanrankhelper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full {@link ClanRosterReconciler} pass over the clan settings roster,
+ * as run on the first game tick after the roster or the rank data changed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ClanRosterBenchmark
+{
+    @Param({"500", "2000", "10000"})
+    public int rosterSize;
+
+    private ClanRosterReconciler reconciler;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException
+    {
+        ClanRankHelperConfig config = new ClanRankHelperConfig()
+        {
+        };
+        SyntheticMemberList memberList = new SyntheticMemberList(0, rosterSize);
+        ClanRankHelperPlugin plugin = SyntheticMemberList.newPlugin(config, memberList.getRankData());
+
+        WidgetTextCache textCache = new WidgetTextCache();
+        reconciler = new ClanRosterReconciler(memberList.getClient(), plugin, config,
+            new MemberListWidgets(textCache), textCache);
+    }
+
+    @Benchmark
+    public void fullPass()
+    {
+        reconciler.invalidate();
+        reconciler.reconcile();
+    }
+
+    /**
+     * Nothing changed since the last tick.
+     */
+    @Benchmark
+    public void unchangedTick()
+    {
+        reconciler.reconcile();
+    }
+}
@@ -0,0 +1,163 @@
+package com.clanrankhelper;
+
+import com.google.gson.Gson;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Downloading and parsing a rank sheet or API response, served from an
+ * in-process HTTP server so the OkHttp body read is included.
+ *
+ * The legacy benchmarks read the body into a String first, like the plugin
+ * used to; the streaming ones go through the same path as
+ * {@link ClanRankHelperPlugin}, hashing included. Rows per second is the
+ * {@code rows} counter; run with the gc profiler for bytes allocated per
+ * download.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class IngestionBenchmark
+{
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    // Narrow is just RSN and rank, wide has 30 columns (or fields per entry)
+    @Param({"narrow", "wide"})
+    public String shape;
+
+    /**
+     * Rows parsed, reported by JMH as a rate.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter
+    {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            rows = 0;
+        }
+    }
+
+    private final Gson gson = new Gson();
+    private MockWebServer server;
+    private OkHttpClient client;
+    private Request sheetRequest;
+    private Request apiRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        boolean wide = shape.equals("wide");
+        Buffer csv = new Buffer().writeUtf8(IngestionPayloads.csv(rows, wide));
+        Buffer json = new Buffer().writeUtf8(IngestionPayloads.json(rows, wide));
+
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher()
+        {
+            @Override
+            public MockResponse dispatch(RecordedRequest request)
+            {
+                boolean sheet = request.getPath().startsWith("/sheet");
+                // Buffer.clone() shares segments, so serving doesn't copy the payload
+                return new MockResponse()
+                    .setHeader("Content-Type", sheet ? "text/csv; charset=utf-8" : "application/json; charset=utf-8")
+                    .setBody((sheet ? csv : json).clone());
+            }
+        });
+        server.start();
+
+        client = new OkHttpClient();
+        sheetRequest = new Request.Builder().url(server.url("/sheet")).build();
+        apiRequest = new Request.Builder().url(server.url("/api")).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException
+    {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, String> sheetsLegacy(RowCounter counter) throws IOException
+    {
+        try (Response response = client.newCall(sheetRequest).execute())
+        {
+            Map<String, String> ranks = LegacyIngestion.readSheet(response.body().string(), 0, 1, false);
+            counter.rows += ranks.size();
+            return ranks;
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> sheetsStreaming(RowCounter counter) throws IOException
+    {
+        try (Response response = client.newCall(sheetRequest).execute();
+             Reader reader = hashedReader(response))
+        {
+            Map<String, String> ranks = RankDataParser.readSheet(reader, 0, 1, false);
+            counter.rows += ranks.size();
+            return ranks;
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> apiLegacy(RowCounter counter) throws IOException
+    {
+        try (Response response = client.newCall(apiRequest).execute())
+        {
+            Map<String, String> ranks = LegacyIngestion.readApi(gson, response.body().string());
+            counter.rows += ranks.size();
+            return ranks;
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> apiStreaming(RowCounter counter) throws IOException
+    {
+        try (Response response = client.newCall(apiRequest).execute();
+             Reader reader = hashedReader(response))
+        {
+            Map<String, String> ranks = RankDataParser.readApiResponse(gson.newJsonReader(reader)).getEntries();
+            counter.rows += ranks.size();
+            return ranks;
+        }
+    }
+
+    private static Reader hashedReader(Response response)
+    {
+        InputStream in = new DigestInputStream(response.body().byteStream(), RankSourceState.newDigest());
+        return new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+}
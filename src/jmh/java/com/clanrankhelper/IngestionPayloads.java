@@ -0,0 +1,104 @@
+package com.clanrankhelper;
+
+/**
+ * Generated rank data in the Sheets CSV and API JSON formats.
+ *
+ * Every seventh player has a name with a comma and every fifth rank cell is
+ * quoted, so the quoting paths are exercised as well.
+ */
+final class IngestionPayloads
+{
+    // Columns in a wide sheet; RSN and rank are the first two
+    static final int WIDE_COLUMNS = 30;
+
+    private IngestionPayloads()
+    {
+    }
+
+    static String csv(int rows, boolean wide)
+    {
+        int columns = wide ? WIDE_COLUMNS : 2;
+        StringBuilder sb = new StringBuilder(rows * (wide ? 300 : 30));
+
+        sb.append("RSN,Rank");
+        for (int c = 2; c < columns; c++)
+        {
+            sb.append(",Column ").append(c + 1);
+        }
+        sb.append("\r\n");
+
+        for (int i = 0; i < rows; i++)
+        {
+            String name = playerName(i);
+            if (name.indexOf(',') >= 0)
+            {
+                sb.append('"').append(name).append('"');
+            }
+            else
+            {
+                sb.append(name);
+            }
+
+            String rank = SyntheticMemberList.RANKS[i % SyntheticMemberList.RANKS.length];
+            sb.append(',');
+            if (i % 5 == 0)
+            {
+                sb.append('"').append(rank).append('"');
+            }
+            else
+            {
+                sb.append(rank);
+            }
+
+            for (int c = 2; c < columns; c++)
+            {
+                sb.append(',');
+                if (c % 4 == 0)
+                {
+                    sb.append("\"note ").append(i).append(", ").append(c).append(" \"\"q\"\"\"");
+                }
+                else
+                {
+                    sb.append(i * 31 + c);
+                }
+            }
+            sb.append("\r\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param wide give every entry as many extra fields as a wide sheet has
+     *             extra columns, which the parsers have to skip
+     */
+    static String json(int rows, boolean wide)
+    {
+        StringBuilder sb = new StringBuilder(rows * (wide ? 600 : 60));
+        sb.append('[');
+        for (int i = 0; i < rows; i++)
+        {
+            if (i > 0)
+            {
+                sb.append(',');
+            }
+            sb.append("{\"mainRSN\":\"").append(playerName(i))
+                .append("\",\"osrsName\":\"").append(SyntheticMemberList.RANKS[i % SyntheticMemberList.RANKS.length])
+                .append('"');
+            if (wide)
+            {
+                for (int c = 2; c < WIDE_COLUMNS; c++)
+                {
+                    sb.append(",\"field").append(c).append("\":\"value ").append(i * 31 + c).append('"');
+                }
+            }
+            sb.append('}');
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+
+    private static String playerName(int i)
+    {
+        return i % 7 == 0 ? "Smith, Player " + i : SyntheticMemberList.playerName(i);
+    }
+}
@@ -0,0 +1,126 @@
+package com.clanrankhelper;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ingestion code as it was before the streaming parsers: the whole body
+ * read into a String, split into lines with a per-line CSV splitter, or
+ * bound to a list of entries with a TypeToken. Kept only as the baseline
+ * for {@link IngestionBenchmark}.
+ */
+final class LegacyIngestion
+{
+    private static final Type ENTRY_LIST = new TypeToken<List<RankEntry>>(){}.getType();
+
+    private LegacyIngestion()
+    {
+    }
+
+    private static class RankEntry
+    {
+        String mainRSN;
+        String osrsName;
+    }
+
+    static Map<String, String> readSheet(String responseBody, int rsnIdx, int rankIdx, boolean skipHeader)
+        throws IOException
+    {
+        Map<String, String> rankMap = new HashMap<>();
+
+        BufferedReader reader = new BufferedReader(new StringReader(responseBody));
+        String line;
+        boolean firstLine = true;
+
+        while ((line = reader.readLine()) != null)
+        {
+            if (firstLine)
+            {
+                firstLine = false;
+
+                if (skipHeader)
+                {
+                    continue;
+                }
+
+                String lowerLine = line.toLowerCase();
+                if (lowerLine.contains("rsn") || lowerLine.contains("name") || lowerLine.contains("rank"))
+                {
+                    continue;
+                }
+            }
+
+            String[] parts = parseCsvLine(line);
+
+            int maxIdx = Math.max(rsnIdx, rankIdx);
+            if (parts.length <= maxIdx)
+            {
+                continue;
+            }
+
+            String rsn = parts[rsnIdx].trim();
+            String rank = parts[rankIdx].trim();
+
+            if (!rsn.isEmpty() && !rank.isEmpty())
+            {
+                rankMap.put(rsn.toLowerCase(), rank);
+            }
+        }
+        reader.close();
+
+        return rankMap;
+    }
+
+    static Map<String, String> readApi(Gson gson, String responseBody)
+    {
+        List<RankEntry> entries = gson.fromJson(responseBody, ENTRY_LIST);
+
+        Map<String, String> rankMap = new HashMap<>();
+        for (RankEntry entry : entries)
+        {
+            if (entry.mainRSN != null && !entry.mainRSN.isEmpty())
+            {
+                rankMap.put(entry.mainRSN.toLowerCase().trim(), entry.osrsName);
+            }
+        }
+        return rankMap;
+    }
+
+    private static String[] parseCsvLine(String line)
+    {
+        List<String> result = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+
+        for (int i = 0; i < line.length(); i++)
+        {
+            char c = line.charAt(i);
+
+            if (c == '"')
+            {
+                inQuotes = !inQuotes;
+            }
+            else if (c == ',' && !inQuotes)
+            {
+                result.add(current.toString());
+                current = new StringBuilder();
+            }
+            else
+            {
+                current.append(c);
+            }
+        }
+        result.add(current.toString());
+
+        return result.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,97 @@
+package com.clanrankhelper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One client frame with the member list open: the {@code BeforeRender}
+ * reconcile pass followed by {@link ClanChatOverlay#render}.
+ *
+ * Run with {@code ./gradlew jmh}; the gc profiler reports bytes allocated
+ * per frame as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemberListOverlayBenchmark
+{
+    @Param({"50", "200", "1000"})
+    public int rows;
+
+    @Param({"1000", "10000"})
+    public int rosterSize;
+
+    private SyntheticMemberList memberList;
+    private MemberListWidgets memberListWidgets;
+    private MemberListReconciler reconciler;
+    private ClanChatOverlay overlay;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException
+    {
+        ClanRankHelperConfig config = new ClanRankHelperConfig()
+        {
+        };
+        memberList = new SyntheticMemberList(rows, rosterSize);
+        ClanRankHelperPlugin plugin = SyntheticMemberList.newPlugin(config, memberList.getRankData());
+
+        WidgetTextCache textCache = new WidgetTextCache();
+        memberListWidgets = new MemberListWidgets(textCache);
+        RenderProfiler profiler = new RenderProfiler();
+        reconciler = new MemberListReconciler(memberList.getClient(), plugin, config, memberListWidgets, textCache,
+            profiler);
+        overlay = new ClanChatOverlay(plugin, config, reconciler, profiler);
+
+        image = new BufferedImage(765, 503, BufferedImage.TYPE_INT_ARGB);
+        graphics = image.createGraphics();
+        graphics.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
+
+        // First pass builds the caches, like the first frame after opening
+        reconciler.reconcile();
+        overlay.render(graphics);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        graphics.dispose();
+    }
+
+    /**
+     * Nothing changed since the last frame, the common case.
+     */
+    @Benchmark
+    public Dimension steadyFrame()
+    {
+        reconciler.reconcile();
+        return overlay.render(graphics);
+    }
+
+    /**
+     * The list scrolled by a row, as signalled by the scrollbar script.
+     */
+    @Benchmark
+    public Dimension scrollFrame()
+    {
+        memberList.scrollOneRow();
+        memberListWidgets.invalidate();
+        reconciler.reconcile();
+        return overlay.render(graphics);
+    }
+}
@@ -114,6 +114,67 @@ public interface ClanRankHelperConfig extends Config
         return 5;
     }
 
+    @ConfigItem(
+        keyName = "additionalSources",
+        name = "Additional Sources",
+        description = "More API or Google Sheets URLs, one per line. Fetched together with the URL above and merged into one list. Sheets use the column settings below.",
+        section = apiSection,
+        position = 3,
+        warning = "This plugin submits your IP address to a 3rd party website not controlled or verified by the RuneLite Developers."
+    )
+    default String additionalSources()
+    {
+        return "";
+    }
+
+    @ConfigItem(
+        keyName = "sourcePrecedence",
+        name = "Source Precedence",
+        description = "Which source's rank is used when several sources list the same player",
+        section = apiSection,
+        position = 4
+    )
+    default SourcePrecedence sourcePrecedence()
+    {
+        return SourcePrecedence.FIRST_WINS;
+    }
+
+    @ConfigItem(
+        keyName = "refreshOnDemand",
+        name = "Only Refresh When Needed",
+        description = "Fetch rank data when the clan member list is opened or you log into a clan, and stop refreshing once the clan settings have been closed for a while",
+        section = apiSection,
+        position = 5
+    )
+    default boolean refreshOnDemand()
+    {
+        return false;
+    }
+
+    @ConfigItem(
+        keyName = "refreshIdleMinutes",
+        name = "Pause After (minutes)",
+        description = "With \"Only Refresh When Needed\" on, how long the clan settings can stay closed before refreshing pauses",
+        section = apiSection,
+        position = 6
+    )
+    default int refreshIdleMinutes()
+    {
+        return 10;
+    }
+
+    @ConfigItem(
+        keyName = "apiDeltaSync",
+        name = "API Delta Sync",
+        description = "Ask the API only for the changes since the last refresh. The API must support it, see the plugin's README.",
+        section = apiSection,
+        position = 7
+    )
+    default boolean apiDeltaSync()
+    {
+        return false;
+    }
+
     @ConfigItem(
         keyName = "showOverlay",
         name = "Show Overlay Panel",
@@ -210,6 +271,66 @@ public interface ClanRankHelperConfig extends Config
         return false;
     }
 
+    @ConfigItem(
+        keyName = "reconcileFromRoster",
+        name = "Check Full Clan Roster",
+        description = "Check every member's rank from the clan settings data when it loads, instead of only the rows you scroll past in the member list",
+        section = displaySection,
+        position = 8
+    )
+    default boolean reconcileFromRoster()
+    {
+        return true;
+    }
+
+    @ConfigItem(
+        keyName = "showFetchStats",
+        name = "Show Fetch Stats",
+        description = "Debug: add timings, sizes and entry counts of recent fetches to the overlay panel",
+        section = displaySection,
+        position = 9
+    )
+    default boolean showFetchStats()
+    {
+        return false;
+    }
+
+    @ConfigItem(
+        keyName = "profileRendering",
+        name = "Profile Rendering",
+        description = "Debug: measure the time and allocations of each overlay frame and show p50/p99 in a panel",
+        section = displaySection,
+        position = 10
+    )
+    default boolean profileRendering()
+    {
+        return false;
+    }
+
+    @ConfigItem(
+        keyName = "dumpRenderProfile",
+        name = "Dump Render Profile",
+        description = "Toggle ON to write the render profile to the client log",
+        section = displaySection,
+        position = 11
+    )
+    default boolean dumpRenderProfile()
+    {
+        return false;
+    }
+
+    @ConfigItem(
+        keyName = "recordMemberList",
+        name = "Record Member List",
+        description = "Debug: record the clan settings member list as you scroll it; saved to .runelite/clan-rank-helper/recordings when turned off",
+        section = displaySection,
+        position = 12
+    )
+    default boolean recordMemberList()
+    {
+        return false;
+    }
+
     // ==================== Rank Colors Section ====================
 
     @ConfigItem(
@@ -1,352 +1,289 @@
 package com.clanrankhelper;
 
-import net.runelite.api.Client;
 import net.runelite.client.ui.overlay.OverlayPanel;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
+import net.runelite.client.ui.overlay.components.LayoutableRenderableEntity;
 import net.runelite.client.ui.overlay.components.LineComponent;
 import net.runelite.client.ui.overlay.components.TitleComponent;
 
 import javax.inject.Inject;
 import java.awt.*;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 
 public class ClanRankHelperOverlay extends OverlayPanel
 {
     private final ClanRankHelperPlugin plugin;
     private final ClanRankHelperConfig config;
+    private final FetchStats fetchStats;
+    private final RenderProfiler profiler;
 
-    // Define rank order for sorting
-    private static final Map<String, Integer> RANK_ORDER = Map.of(
-        "Recruit", 1,
-        "Corporal", 2,
-        "Sergeant", 3,
-        "Cadet", 4,
-        "Lieutenant", 5,
-        "Captain", 6,
-        "Veteran", 7,
-        "General", 8,
-        "Master", 9
-    );
+    // Components built for the view with componentsVersion, reused until it changes
+    private List<LayoutableRenderableEntity> components = new ArrayList<>();
+    private int componentsVersion = -1;
+
+    // Same for the fetch stats debug section
+    private List<LayoutableRenderableEntity> statsComponents = new ArrayList<>();
+    private int statsVersion = -1;
 
     @Inject
-    public ClanRankHelperOverlay(ClanRankHelperPlugin plugin, ClanRankHelperConfig config)
+    public ClanRankHelperOverlay(ClanRankHelperPlugin plugin, ClanRankHelperConfig config, FetchStats fetchStats,
+                                 RenderProfiler profiler)
     {
         super(plugin);
         this.plugin = plugin;
         this.config = config;
+        this.fetchStats = fetchStats;
+        this.profiler = profiler;
         setPosition(OverlayPosition.TOP_LEFT);
         setPriority(OverlayPriority.LOW);
     }
 
     @Override
     public Dimension render(Graphics2D graphics)
+    {
+        if (!profiler.isEnabled())
+        {
+            return renderPanel(graphics);
+        }
+
+        long allocated = profiler.allocatedBytes();
+        long start = System.nanoTime();
+        Dimension dimension = renderPanel(graphics);
+        profiler.getPanel().frame(System.nanoTime() - start, profiler.allocatedSince(allocated), 0);
+        return dimension;
+    }
+
+    private Dimension renderPanel(Graphics2D graphics)
     {
         if (!config.showOverlay())
         {
             return null;
         }
 
-        Map<String, String> pendingChanges = plugin.getPendingRankChanges();
-        
+        RanksNeededView view = plugin.getRanksNeededView();
+        if (view.getVersion() != componentsVersion)
+        {
+            components = buildComponents(view);
+            componentsVersion = view.getVersion();
+        }
+
+        panelComponent.getChildren().addAll(components);
+
+        if (config.showFetchStats())
+        {
+            if (fetchStats.getVersion() != statsVersion)
+            {
+                statsVersion = fetchStats.getVersion();
+                statsComponents = buildStatsComponents();
+            }
+            panelComponent.getChildren().addAll(statsComponents);
+        }
+
+        return super.render(graphics);
+    }
+
+    private List<LayoutableRenderableEntity> buildStatsComponents()
+    {
+        List<LayoutableRenderableEntity> children = new ArrayList<>();
+        children.add(LineComponent.builder()
+            .left("── Fetch stats ──")
+            .leftColor(Color.DARK_GRAY)
+            .build());
+
+        List<FetchStats.Record> history = fetchStats.getHistory();
+        if (history.isEmpty())
+        {
+            children.add(LineComponent.builder()
+                .left("No fetches yet")
+                .leftColor(Color.GRAY)
+                .build());
+            return children;
+        }
+
+        FetchStats.Record last = history.get(history.size() - 1);
+        children.add(LineComponent.builder()
+            .left(last.getSource())
+            .leftColor(Color.WHITE)
+            .right(last.getStatus() == 0 ? "failed" : String.valueOf(last.getStatus()))
+            .rightColor(last.getStatus() >= 200 && last.getStatus() < 400 ? Color.GREEN : Color.RED)
+            .build());
+        if (last.getEntries() >= 0)
+        {
+            children.add(LineComponent.builder()
+                .left(formatBytes(last.getBytes()))
+                .leftColor(Color.GRAY)
+                .right(last.getEntries() + " entries")
+                .rightColor(Color.GRAY)
+                .build());
+        }
+        addTiming(children, "DNS / connect", last.getDnsNanos(), last.getConnectNanos());
+        addTiming(children, "Wait / transfer", last.getWaitNanos(), last.getTransferNanos());
+        addTiming(children, "Parse / total", last.getParseNanos(), last.getTotalNanos());
+
+        if (fetchStats.getLastApplyEntries() > 0)
+        {
+            children.add(LineComponent.builder()
+                .left("Apply")
+                .leftColor(Color.GRAY)
+                .right(FetchStats.millis(fetchStats.getLastApplyNanos()) + " ms")
+                .rightColor(Color.WHITE)
+                .build());
+        }
+
+        long totalNanos = 0;
+        for (FetchStats.Record record : history)
+        {
+            totalNanos += record.getTotalNanos();
+        }
+        children.add(LineComponent.builder()
+            .left("Avg of " + history.size())
+            .leftColor(Color.GRAY)
+            .right(FetchStats.millis(totalNanos / history.size()) + " ms")
+            .rightColor(Color.WHITE)
+            .build());
+
+        return children;
+    }
+
+    private static void addTiming(List<LayoutableRenderableEntity> children, String label, long first, long second)
+    {
+        children.add(LineComponent.builder()
+            .left(label)
+            .leftColor(Color.GRAY)
+            .right(FetchStats.millis(first) + " / " + FetchStats.millis(second) + " ms")
+            .rightColor(Color.WHITE)
+            .build());
+    }
+
+    private static String formatBytes(long bytes)
+    {
+        if (bytes < 0)
+        {
+            return "? bytes";
+        }
+        if (bytes < 1024)
+        {
+            return bytes + " B";
+        }
+        return String.format("%.1f KB", bytes / 1024.0);
+    }
+
+    private List<LayoutableRenderableEntity> buildComponents(RanksNeededView view)
+    {
+        List<LayoutableRenderableEntity> children = new ArrayList<>();
+
         // Always show overlay for debugging
-        if (pendingChanges.isEmpty())
+        if (view.getTotalCount() == 0)
         {
-            panelComponent.getChildren().add(TitleComponent.builder()
+            children.add(TitleComponent.builder()
                 .text("Clan Rank Helper")
                 .color(Color.YELLOW)
                 .build());
-            panelComponent.getChildren().add(LineComponent.builder()
+            children.add(LineComponent.builder()
                 .left("No API data loaded")
                 .leftColor(Color.GRAY)
                 .build());
-            panelComponent.getChildren().add(LineComponent.builder()
+            children.add(LineComponent.builder()
                 .left("Check API URL in config")
                 .leftColor(Color.GRAY)
                 .build());
-            return super.render(graphics);
+            return children;
         }
 
-        // Build list of pending changes - show all confirmed to need a change
-        List<Map.Entry<String, String>> displayList = new ArrayList<>();
-        
-        // Get the sets of confirmed members
-        java.util.Set<String> confirmedNeedsChange = plugin.getConfirmedNeedsChange();
-        java.util.Set<String> confirmedOk = plugin.getConfirmedOk();
-        
-        for (Map.Entry<String, String> entry : pendingChanges.entrySet())
-        {
-            // Skip if target rank is in ignored list
-            if (isTargetRankIgnored(entry.getValue()))
-            {
-                continue;
-            }
-            
-            // Skip if player is in ignored list
-            if (isPlayerIgnored(entry.getKey()))
-            {
-                continue;
-            }
-            
-            String playerNameLower = entry.getKey().toLowerCase();
-            
-            // Only show if confirmed to need a change
-            if (confirmedNeedsChange.contains(playerNameLower))
-            {
-                displayList.add(entry);
-            }
-        }
-        
-        // Calculate how many members have been checked
-        int totalFromApi = pendingChanges.size();
-        int checkedCount = 0;
-        for (Map.Entry<String, String> entry : pendingChanges.entrySet())
-        {
-            String playerNameLower = entry.getKey().toLowerCase();
-            if (confirmedNeedsChange.contains(playerNameLower) || confirmedOk.contains(playerNameLower))
-            {
-                checkedCount++;
-            }
-        }
+        int totalFromApi = view.getTotalCount();
+        int checkedCount = view.getCheckedCount();
 
-        if (displayList.isEmpty())
+        if (view.getNeedChangeCount() == 0)
         {
             // Show status message
-            panelComponent.getChildren().add(TitleComponent.builder()
+            children.add(TitleComponent.builder()
                 .text("Rank Helper")
                 .color(Color.GREEN)
                 .build());
-            
-            if (checkedCount < totalFromApi)
+
+            if (checkedCount < totalFromApi && view.isRosterChecked())
             {
-                panelComponent.getChildren().add(LineComponent.builder()
+                // Everyone in the clan was checked, the rest just aren't members
+                children.add(LineComponent.builder()
+                    .left("All ranks correct!")
+                    .leftColor(Color.GREEN)
+                    .build());
+                children.add(LineComponent.builder()
+                    .left("Not in clan: " + (totalFromApi - checkedCount))
+                    .leftColor(Color.GRAY)
+                    .build());
+            }
+            else if (checkedCount < totalFromApi)
+            {
+                children.add(LineComponent.builder()
                     .left("Checked: " + checkedCount + "/" + totalFromApi)
                     .leftColor(Color.YELLOW)
                     .build());
-                panelComponent.getChildren().add(LineComponent.builder()
+                children.add(LineComponent.builder()
                     .left("Scroll member list")
                     .leftColor(Color.GRAY)
                     .build());
-                panelComponent.getChildren().add(LineComponent.builder()
+                children.add(LineComponent.builder()
                     .left("to check all")
                     .leftColor(Color.GRAY)
                     .build());
             }
             else
             {
-                panelComponent.getChildren().add(LineComponent.builder()
+                children.add(LineComponent.builder()
                     .left("All ranks correct!")
                     .leftColor(Color.GREEN)
                     .build());
             }
-            return super.render(graphics);
+            return children;
         }
 
-        // Sort by rank order
-        displayList.sort(Comparator.comparingInt(e -> RANK_ORDER.getOrDefault(e.getValue(), 99)));
-
         // Title
-        panelComponent.getChildren().add(TitleComponent.builder()
+        children.add(TitleComponent.builder()
             .text("Ranks Needed")
             .color(Color.YELLOW)
             .build());
 
         // Display count
-        panelComponent.getChildren().add(LineComponent.builder()
-            .left("Need change: " + displayList.size())
+        children.add(LineComponent.builder()
+            .left("Need change: " + view.getNeedChangeCount())
             .leftColor(Color.WHITE)
             .build());
-        
-        if (checkedCount < totalFromApi)
+
+        if (checkedCount < totalFromApi && !view.isRosterChecked())
         {
-            panelComponent.getChildren().add(LineComponent.builder()
+            children.add(LineComponent.builder()
                 .left("Checked: " + checkedCount + "/" + totalFromApi)
                 .leftColor(Color.GRAY)
                 .build());
         }
 
-        panelComponent.getChildren().add(LineComponent.builder()
+        children.add(LineComponent.builder()
             .left("─────────────────")
             .leftColor(Color.DARK_GRAY)
             .build());
 
-        // Limit display if configured
-        int maxDisplay = config.maxDisplayed();
-        int count = 0;
-
-        for (Map.Entry<String, String> entry : displayList)
+        for (RanksNeededView.Row row : view.getRows())
         {
-            if (maxDisplay > 0 && count >= maxDisplay)
-            {
-                panelComponent.getChildren().add(LineComponent.builder()
-                    .left("... and " + (displayList.size() - maxDisplay) + " more")
-                    .leftColor(Color.GRAY)
-                    .build());
-                break;
-            }
-
-            String playerName = entry.getKey();
-            String targetRank = entry.getValue();
-            Color rankColor = getRankColor(targetRank);
-
-            // Capitalize first letter of each word in player name for display
-            String displayName = capitalizeWords(playerName);
-
-            panelComponent.getChildren().add(LineComponent.builder()
-                .left(displayName)
+            children.add(LineComponent.builder()
+                .left(row.getDisplayName())
                 .leftColor(Color.WHITE)
-                .right("→ " + targetRank)
-                .rightColor(rankColor)
+                .right("→ " + row.getTargetRank())
+                .rightColor(row.getRankColor())
                 .build());
-
-            count++;
         }
 
-        return super.render(graphics);
-    }
-
-    private Color getRankColor(String rank)
-    {
-        // First check custom rank colors
-        Color customColor = getCustomRankColor(rank);
-        if (customColor != null)
-        {
-            return customColor;
-        }
-        
-        // Then check built-in ranks
-        switch (rank.toLowerCase())
-        {
-            case "recruit":
-                return config.recruitColor();
-            case "corporal":
-                return config.corporalColor();
-            case "sergeant":
-                return config.sergeantColor();
-            case "cadet":
-                return config.cadetColor();
-            case "lieutenant":
-                return config.lieutenantColor();
-            case "captain":
-                return config.captainColor();
-            case "veteran":
-                return config.veteranColor();
-            case "general":
-                return config.generalColor();
-            case "master":
-                return config.masterColor();
-            default:
-                return config.highlightColor();
-        }
-    }
-    
-    private Color getCustomRankColor(String rank)
-    {
-        String customColors = config.customRankColors();
-        if (customColors == null || customColors.trim().isEmpty())
-        {
-            return null;
-        }
-        
-        String[] pairs = customColors.split(",");
-        for (String pair : pairs)
+        int hidden = view.getNeedChangeCount() - view.getRows().size();
+        if (hidden > 0)
         {
-            String[] parts = pair.split(":");
-            if (parts.length == 2)
-            {
-                String rankName = parts[0].trim();
-                String hexColor = parts[1].trim();
-                
-                if (rankName.equalsIgnoreCase(rank))
-                {
-                    try
-                    {
-                        return Color.decode(hexColor);
-                    }
-                    catch (NumberFormatException e)
-                    {
-                        // Invalid hex, skip
-                    }
-                }
-            }
+            children.add(LineComponent.builder()
+                .left("... and " + hidden + " more")
+                .leftColor(Color.GRAY)
+                .build());
         }
-        return null;
-    }
 
-    private String capitalizeWords(String str)
-    {
-        if (str == null || str.isEmpty())
-        {
-            return str;
-        }
-        
-        StringBuilder result = new StringBuilder();
-        boolean capitalizeNext = true;
-        
-        for (char c : str.toCharArray())
-        {
-            if (Character.isWhitespace(c))
-            {
-                capitalizeNext = true;
-                result.append(c);
-            }
-            else if (capitalizeNext)
-            {
-                result.append(Character.toUpperCase(c));
-                capitalizeNext = false;
-            }
-            else
-            {
-                result.append(c);
-            }
-        }
-        
-        return result.toString();
-    }
-    
-    private boolean isTargetRankIgnored(String rank)
-    {
-        String ignoredRanks = config.ignoredTargetRanks();
-        if (ignoredRanks == null || ignoredRanks.trim().isEmpty())
-        {
-            return false;
-        }
-        
-        // Split by comma, newline, or both
-        String[] ignored = ignoredRanks.split("[,\\n\\r]+");
-        for (String ignoredRank : ignored)
-        {
-            if (ignoredRank.trim().equalsIgnoreCase(rank.trim()))
-            {
-                return true;
-            }
-        }
-        return false;
-    }
-    
-    private boolean isPlayerIgnored(String playerName)
-    {
-        String ignoredPlayers = config.ignoredPlayers();
-        if (ignoredPlayers == null || ignoredPlayers.trim().isEmpty())
-        {
-            return false;
-        }
-        
-        String normalizedName = playerName.toLowerCase().replace(" ", "").replace("-", "").replace("_", "");
-        
-        // Split by comma, newline, or both
-        String[] ignored = ignoredPlayers.split("[,\\n\\r]+");
-        for (String ignoredPlayer : ignored)
-        {
-            String normalizedIgnored = ignoredPlayer.trim().toLowerCase().replace(" ", "").replace("-", "").replace("_", "");
-            if (normalizedIgnored.equals(normalizedName))
-            {
-                return true;
-            }
-        }
-        return false;
+        return children;
     }
 }
@@ -1,33 +1,56 @@
 package com.clanrankhelper;
 
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.google.inject.Provides;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
+import net.runelite.api.ScriptEvent;
+import net.runelite.api.ScriptID;
+import net.runelite.api.events.BeforeRender;
+import net.runelite.api.events.ClanChannelChanged;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.ScriptPostFired;
+import net.runelite.api.events.ScriptPreFired;
+import net.runelite.api.events.WidgetClosed;
+import net.runelite.api.events.WidgetLoaded;
+import net.runelite.api.widgets.WidgetUtil;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
 import net.runelite.client.ui.overlay.OverlayManager;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 
 import javax.inject.Inject;
-import java.io.BufferedReader;
-import java.io.StringReader;
-import java.lang.reflect.Type;
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @PluginDescriptor(
@@ -37,6 +60,13 @@ import java.util.concurrent.TimeUnit;
 )
 public class ClanRankHelperPlugin extends Plugin
 {
+    private static final int MAX_REPORTED_CONFLICTS = 10;
+
+    // Config keys that change what is fetched or how it is parsed
+    private static final Set<String> SOURCE_CONFIG_KEYS = Set.of(
+        "apiUrl", "googleSheetsUrl", "additionalSources", "apiDeltaSync",
+        "sheetsRsnColumn", "sheetsRankColumn", "sheetsHasHeader");
+
     @Inject
     private Client client;
 
@@ -52,22 +82,80 @@ public class ClanRankHelperPlugin extends Plugin
     @Inject
     private ClanChatOverlay clanChatOverlay;
 
+    @Inject
+    private RenderProfilerOverlay renderProfilerOverlay;
+
+    @Inject
+    private MemberListWidgets memberListWidgets;
+
+    @Inject
+    private MemberListReconciler memberListReconciler;
+
+    @Inject
+    private ClanRosterReconciler clanRosterReconciler;
+
+    @Inject
+    private MemberListRecorder memberListRecorder;
+
     @Inject
     private Gson gson;
 
     @Inject
     private OkHttpClient okHttpClient;
 
+    @Inject
+    private RankDatasetStore datasetStore;
+
+    @Inject
+    private FetchStats fetchStats;
+
+    @Inject
+    private RenderProfiler renderProfiler;
+
+    // okHttpClient with per-request phase timings, see FetchTiming
+    private OkHttpClient httpClient;
+
+    // Latest rank data, replaced as a whole on every refresh
     @Getter
-    private final Map<String, String> pendingRankChanges = new ConcurrentHashMap<>();
+    private volatile RankDataset dataset = RankDataset.EMPTY;
     
+    // Players checked in the member list, by RankText.normalizeName
     @Getter
     private final Set<String> confirmedNeedsChange = ConcurrentHashMap.newKeySet();
     
     @Getter
     private final Set<String> confirmedOk = ConcurrentHashMap.newKeySet();
 
+    // Parsed ignore lists and rank colours, rebuilt whenever the config changes
+    @Getter
+    private volatile RankConfigSnapshot configSnapshot;
+
+    // Rebuilt lazily by getRanksNeededView() once something it shows changed
+    private volatile RanksNeededView ranksNeededView = RanksNeededView.EMPTY;
+    private final AtomicBoolean ranksNeededViewDirty = new AtomicBoolean(true);
+
+    // Rank data the whole clan roster was last checked against, see
+    // ClanRosterReconciler
+    private volatile Map<String, String> rosterCheckedRanks;
+
+    // Validators, content hash and last ranks of each source, by URL
+    private final Map<String, RankSourceState> sourceStates = new ConcurrentHashMap<>();
+
     private ScheduledExecutorService executor;
+    private RefreshScheduler refreshScheduler;
+
+    // Bumped when the sources change; fetches started before are discarded
+    private final AtomicInteger sourceGeneration = new AtomicInteger();
+    private final Set<Call> inFlightCalls = ConcurrentHashMap.newKeySet();
+
+    // Sources and generation the dataset was last merged from, so a refresh
+    // with nothing new still re-merges after the sources changed
+    private volatile List<String> lastMergedUrls = Collections.emptyList();
+    private volatile int lastMergedGeneration = -1;
+
+    // When rank data was last needed, for pausing refreshes on demand
+    private volatile boolean clanSettingsOpen;
+    private volatile long lastDemandAt;
     
     @Subscribe
     public void onConfigChanged(ConfigChanged event)
@@ -76,6 +164,9 @@ public class ClanRankHelperPlugin extends Plugin
         {
             return;
         }
+
+        configSnapshot = RankConfigSnapshot.from(config);
+        ranksNeededViewDirty.set(true);
         
         if (event.getKey().equals("resetData") && config.resetData())
         {
@@ -83,36 +174,162 @@ public class ClanRankHelperPlugin extends Plugin
             confirmedNeedsChange.clear();
             confirmedOk.clear();
         }
-        
-        // Re-fetch when API URL changes
-        if (event.getKey().equals("apiUrl"))
+
+        if (event.getKey().equals("profileRendering"))
+        {
+            renderProfiler.setEnabled(config.profileRendering());
+        }
+
+        if (event.getKey().equals("dumpRenderProfile") && config.dumpRenderProfile())
         {
-            log.debug("API URL changed, re-fetching data");
-            executor.submit(this::fetchRankData);
+            renderProfiler.dump();
+        }
+
+        if (event.getKey().equals("recordMemberList"))
+        {
+            if (config.recordMemberList())
+            {
+                memberListRecorder.start();
+            }
+            else
+            {
+                memberListRecorder.stop();
+            }
         }
         
-        // Re-fetch when Google Sheets URL changes
-        if (event.getKey().equals("googleSheetsUrl"))
+        // Re-fetch when the sources change, dropping whatever is still
+        // being fetched from the old ones
+        if (SOURCE_CONFIG_KEYS.contains(event.getKey()))
+        {
+            log.debug("{} changed, re-fetching data", event.getKey());
+            sourceGeneration.incrementAndGet();
+            cancelInFlightCalls();
+            refreshScheduler.trigger();
+        }
+
+        if (event.getKey().equals("refreshInterval"))
+        {
+            refreshScheduler.reschedule();
+        }
+
+        if (event.getKey().equals("refreshOnDemand") && !config.refreshOnDemand())
         {
-            log.debug("Google Sheets URL changed, re-fetching data");
-            executor.submit(this::fetchRankData);
+            refreshScheduler.resume();
+        }
+
+        // Precedence only changes the merge, the data we have is still good
+        if (event.getKey().equals("sourcePrecedence"))
+        {
+            executor.submit(() -> applyMerged(RankSource.allFromConfig(config)));
         }
     }
 
+    @Subscribe
+    public void onWidgetLoaded(WidgetLoaded event)
+    {
+        if (event.getGroupId() == MemberListWidgets.CLAN_SETTINGS_GROUP_ID)
+        {
+            memberListWidgets.invalidate();
+            clanSettingsOpen = true;
+            onDemand();
+        }
+    }
+
+    @Subscribe
+    public void onWidgetClosed(WidgetClosed event)
+    {
+        if (event.getGroupId() == MemberListWidgets.CLAN_SETTINGS_GROUP_ID)
+        {
+            memberListWidgets.clear();
+            memberListReconciler.clear();
+            clanSettingsOpen = false;
+            lastDemandAt = System.currentTimeMillis();
+        }
+    }
+
+    @Subscribe
+    public void onScriptPreFired(ScriptPreFired event)
+    {
+        // The member list is redrawn by scripts attached to its own components
+        ScriptEvent scriptEvent = event.getScriptEvent();
+        if (scriptEvent == null || scriptEvent.getSource() == null)
+        {
+            return;
+        }
+
+        int groupId = WidgetUtil.componentToInterface(scriptEvent.getSource().getId());
+        if (groupId == MemberListWidgets.CLAN_SETTINGS_GROUP_ID)
+        {
+            memberListWidgets.invalidate();
+        }
+    }
+
+    @Subscribe
+    public void onScriptPostFired(ScriptPostFired event)
+    {
+        if (event.getScriptId() == ScriptID.UPDATE_SCROLLBAR)
+        {
+            memberListWidgets.invalidate();
+        }
+    }
+
+    @Subscribe
+    public void onClanChannelChanged(ClanChannelChanged event)
+    {
+        clanRosterReconciler.invalidate();
+        rosterCheckedRanks = null;
+        ranksNeededViewDirty.set(true);
+
+        // Logged into a clan
+        if (event.getClanChannel() != null && !event.isGuest())
+        {
+            onDemand();
+        }
+    }
+
+    @Subscribe
+    public void onGameTick(GameTick event)
+    {
+        clanRosterReconciler.reconcile();
+    }
+
+    @Subscribe
+    public void onBeforeRender(BeforeRender event)
+    {
+        memberListReconciler.reconcile();
+        memberListRecorder.capture();
+    }
+
     @Override
     protected void startUp() throws Exception
     {
         log.debug("Clan Rank Helper starting up");
+        configSnapshot = RankConfigSnapshot.from(config);
         overlayManager.add(overlay);
         overlayManager.add(clanChatOverlay);
+        overlayManager.add(renderProfilerOverlay);
+        renderProfiler.setEnabled(config.profileRendering());
+        if (config.recordMemberList())
+        {
+            memberListRecorder.start();
+        }
+
+        // Show the last good data right away, the fetch below revalidates it
+        loadCachedDataset();
         
+        httpClient = okHttpClient.newBuilder()
+            .eventListenerFactory(FetchTiming.FACTORY)
+            .build();
         executor = Executors.newSingleThreadScheduledExecutor();
         
-        // Fetch immediately on startup
-        executor.submit(this::fetchRankData);
-        
-        // Then refresh periodically based on config
-        scheduleRefresh();
+        // Fetch immediately on startup, then refresh periodically based on
+        // config. On demand, wait until the data is first needed instead.
+        refreshScheduler = new RefreshScheduler(executor, this::fetchRankData, config::refreshInterval,
+            this::isRefreshPaused);
+        if (!config.refreshOnDemand())
+        {
+            refreshScheduler.trigger();
+        }
         log.debug("Clan Rank Helper started");
     }
 
@@ -122,294 +339,554 @@ public class ClanRankHelperPlugin extends Plugin
         log.debug("Clan Rank Helper stopped");
         overlayManager.remove(overlay);
         overlayManager.remove(clanChatOverlay);
+        overlayManager.remove(renderProfilerOverlay);
+        renderProfiler.setEnabled(false);
+        memberListRecorder.stop();
         
+        if (refreshScheduler != null)
+        {
+            refreshScheduler.stop();
+        }
+        cancelInFlightCalls();
         if (executor != null)
         {
             executor.shutdown();
         }
-        pendingRankChanges.clear();
+        fetchStats.clear();
+        memberListWidgets.clear();
+        memberListReconciler.clear();
+        clanRosterReconciler.invalidate();
+        rosterCheckedRanks = null;
+        dataset = RankDataset.EMPTY;
+        sourceStates.clear();
+        clanSettingsOpen = false;
+        lastDemandAt = 0;
         confirmedNeedsChange.clear();
         confirmedOk.clear();
+        ranksNeededViewDirty.set(true);
     }
 
-    private void scheduleRefresh()
+    private void loadCachedDataset()
     {
-        int refreshMinutes = config.refreshInterval();
-        executor.scheduleAtFixedRate(
-            this::fetchRankData,
-            refreshMinutes,
-            refreshMinutes,
-            TimeUnit.MINUTES
-        );
+        List<RankSource> sources = RankSource.allFromConfig(config);
+        if (sources.isEmpty())
+        {
+            return;
+        }
+
+        // Only data cached from a source that is still configured applies
+        List<RankDatasetStore.Entry> cached = datasetStore.load();
+        int restored = 0;
+        for (RankSource source : sources)
+        {
+            for (RankDatasetStore.Entry entry : cached)
+            {
+                if (entry.matches(source))
+                {
+                    sourceStates.put(source.getUrl(), entry.toSourceState());
+                    restored++;
+                    break;
+                }
+            }
+        }
+
+        if (restored > 0)
+        {
+            applyMerged(sources);
+            log.debug("Loaded cached rank data for {} of {} sources", restored, sources.size());
+        }
     }
 
-    private void fetchRankData()
+    private void onDemand()
     {
-        // Check if Google Sheets URL is configured (takes priority)
-        String sheetsUrl = config.googleSheetsUrl();
-        if (sheetsUrl != null && !sheetsUrl.trim().isEmpty())
+        lastDemandAt = System.currentTimeMillis();
+        if (refreshScheduler != null)
         {
-            fetchFromGoogleSheets(sheetsUrl.trim());
-            return;
+            refreshScheduler.resume();
         }
-        
-        // Otherwise use API URL
-        String apiUrl = config.apiUrl();
-        if (apiUrl != null && !apiUrl.trim().isEmpty())
+    }
+
+    private boolean isRefreshPaused()
+    {
+        if (!config.refreshOnDemand() || clanSettingsOpen)
         {
-            fetchFromApi(apiUrl.trim());
-            return;
+            return false;
         }
-        
-        log.debug("Clan Rank Helper: No API URL or Google Sheets URL configured");
+        long idleMillis = TimeUnit.MINUTES.toMillis(Math.max(0, config.refreshIdleMinutes()));
+        return lastDemandAt == 0 || System.currentTimeMillis() - lastDemandAt > idleMillis;
     }
 
-    private void fetchFromGoogleSheets(String sheetsUrl)
+    private FetchResult fetchRankData()
     {
-        try
+        // Taken before reading the config, so a change made while this runs
+        // always shows up as a newer generation
+        final int generation = sourceGeneration.get();
+        List<RankSource> sources = RankSource.allFromConfig(config);
+        if (sources.isEmpty())
         {
-            String csvUrl = convertToCsvUrl(sheetsUrl);
-            if (csvUrl == null)
+            log.debug("Clan Rank Helper: No API URL or Google Sheets URL configured");
+            if (!lastMergedUrls.isEmpty())
             {
-                log.error("Clan Rank Helper: Invalid Google Sheets URL format");
-                return;
+                // Nothing left to show; drop the data of the removed sources
+                sourceStates.clear();
+                applyMerged(sources);
+                datasetStore.save(Collections.emptyList());
             }
+            return FetchResult.OK;
+        }
 
-            log.debug("Clan Rank Helper: Fetching from Google Sheets: {}", csvUrl);
-
-            Request request = new Request.Builder()
-                    .url(csvUrl)
-                    .header("User-Agent", "RuneLite-ClanRankHelper")
-                    .build();
+        // Forget sources that are no longer configured
+        sourceStates.keySet().retainAll(urlsOf(sources));
 
-            try (Response response = okHttpClient.newCall(request).execute())
+        // Every source is requested at once, so a refresh takes as long as
+        // the slowest one rather than all of them added up
+        CountDownLatch done = new CountDownLatch(sources.size());
+        AtomicBoolean changed = new AtomicBoolean();
+        FetchResult[] results = new FetchResult[sources.size()];
+        for (int i = 0; i < sources.size(); i++)
+        {
+            final int index = i;
+            RankSource source = sources.get(i);
+            RankSourceState state = sourceStateFor(source);
+            log.debug("Clan Rank Helper: Fetching from {}: {}", source.getLabel(), source.getUrl());
+
+            Call sourceCall = httpClient.newCall(buildRequest(source, state));
+            inFlightCalls.add(sourceCall);
+            sourceCall.enqueue(new Callback()
             {
-                if (!response.isSuccessful())
+                @Override
+                public void onFailure(Call call, IOException e)
                 {
-                    log.error("Clan Rank Helper: Google Sheets returned non-200 response: {}", response.code());
-                    return;
+                    inFlightCalls.remove(call);
+                    if (call.isCanceled())
+                    {
+                        log.debug("Clan Rank Helper: Fetch from {} superseded", source.getLabel());
+                        results[index] = FetchResult.OK;
+                    }
+                    else
+                    {
+                        log.error("Clan Rank Helper: Failed to fetch from {}", source.getLabel(), e);
+                        recordFetch(source, call, 0);
+                        results[index] = FetchResult.FAILED;
+                    }
+                    done.countDown();
                 }
 
-                String responseBody = response.body().string();
-                Map<String, String> rankMap = new HashMap<>();
-
-                // 1-based -> 0-based
-                final int rsnIdx = Math.max(0, config.sheetsRsnColumn() - 1);
-                final int rankIdx = Math.max(0, config.sheetsRankColumn() - 1);
-                final boolean skipHeader = config.sheetsHasHeader();
-
-                BufferedReader reader = new BufferedReader(new StringReader(responseBody));
-                String line;
-                boolean firstLine = true;
-
-                while ((line = reader.readLine()) != null)
+                @Override
+                public void onResponse(Call call, Response response)
                 {
-                    if (firstLine)
+                    inFlightCalls.remove(call);
+                    // Set once the source is handed on to a snapshot request,
+                    // whose callback then counts it as done
+                    boolean retried = false;
+                    try (response)
                     {
-                        firstLine = false;
+                        if (sourceGeneration.get() != generation)
+                        {
+                            results[index] = FetchResult.OK;
+                            return;
+                        }
 
-                        // If user says header exists, skip it no matter what
-                        if (skipHeader)
+                        if (response.code() == 410 && response.request().url().queryParameter("since") != null)
                         {
-                            continue;
+                            // The API can't serve a delta from our cursor, start over with a snapshot
+                            log.debug("Clan Rank Helper: {} delta cursor expired, fetching everything", source.getLabel());
+                            recordFetch(source, call, response.code());
+                            state.resetCursor();
+                            Call snapshotCall = httpClient.newCall(buildRequest(source, state));
+                            inFlightCalls.add(snapshotCall);
+                            snapshotCall.enqueue(this);
+                            retried = true;
+                            return;
                         }
 
-                        // Otherwise, keep your old "looks like header" heuristic (optional)
-                        String lowerLine = line.toLowerCase();
-                        if (lowerLine.contains("rsn") || lowerLine.contains("name") || lowerLine.contains("rank"))
+                        results[index] = FetchResult.forResponse(response);
+                        if (readResponse(source, state, response))
                         {
-                            // If you do NOT want any heuristics, delete this block.
-                            continue;
+                            changed.set(true);
                         }
+                        recordFetch(source, call, response.code());
                     }
-
-                    String[] parts = parseCsvLine(line);
-
-                    // Need enough columns to read both indices
-                    int maxIdx = Math.max(rsnIdx, rankIdx);
-                    if (parts.length <= maxIdx)
+                    catch (Exception e)
                     {
-                        continue;
+                        if (call.isCanceled() || sourceGeneration.get() != generation)
+                        {
+                            results[index] = FetchResult.OK;
+                        }
+                        else
+                        {
+                            log.error("Clan Rank Helper: Failed to read data from {}", source.getLabel(), e);
+                            results[index] = FetchResult.FAILED;
+                        }
                     }
-
-                    String rsn = parts[rsnIdx].trim();
-                    String rank = parts[rankIdx].trim();
-
-                    if (!rsn.isEmpty() && !rank.isEmpty())
+                    finally
                     {
-                        // Keep your existing behavior: normalize key for matching
-                        rankMap.put(rsn.toLowerCase(), rank);
+                        if (!retried)
+                        {
+                            done.countDown();
+                        }
                     }
                 }
-                reader.close();
+            });
+        }
 
-                log.debug("Clan Rank Helper: Fetched {} entries from Google Sheets", rankMap.size());
-                updateRankData(rankMap);
-            }
+        try
+        {
+            done.await();
         }
-        catch (Exception e)
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return FetchResult.FAILED;
+        }
+
+        // The sources changed while we were fetching; the refresh that
+        // change triggered runs next and fetches from the new ones
+        if (sourceGeneration.get() != generation)
         {
-            log.error("Clan Rank Helper: Failed to fetch from Google Sheets", e);
+            log.debug("Clan Rank Helper: Discarding fetch for outdated sources");
+            return FetchResult.OK;
         }
+
+        // Sources that failed or didn't change still take part with their
+        // last known data. Re-merge even if no body changed when sources
+        // were added or removed, or when a superseded fetch already took in
+        // data this one then saw as not modified
+        if (changed.get() || generation != lastMergedGeneration || !urlsOf(sources).equals(lastMergedUrls))
+        {
+            applyMerged(sources);
+            lastMergedGeneration = generation;
+            datasetStore.save(statesOf(sources));
+        }
+
+        FetchResult result = FetchResult.OK;
+        for (FetchResult sourceResult : results)
+        {
+            result = result.combine(sourceResult);
+        }
+        return result;
     }
-    
-    private String convertToCsvUrl(String sheetsUrl)
+
+    private void cancelInFlightCalls()
     {
-        // Handle various Google Sheets URL formats
-        try
+        for (Call call : inFlightCalls)
         {
-            if (sheetsUrl.contains("/spreadsheets/d/"))
-            {
-                int startIdx = sheetsUrl.indexOf("/spreadsheets/d/") + 16;
-                int endIdx = sheetsUrl.indexOf("/", startIdx);
-                if (endIdx == -1)
-                {
-                    endIdx = sheetsUrl.indexOf("?", startIdx);
-                }
-                if (endIdx == -1)
-                {
-                    endIdx = sheetsUrl.length();
-                }
-                
-                String sheetId = sheetsUrl.substring(startIdx, endIdx);
-                
-                // Check if there's a gid parameter for specific sheet
-                String gid = "";
-                if (sheetsUrl.contains("gid="))
-                {
-                    int gidStart = sheetsUrl.indexOf("gid=") + 4;
-                    int gidEnd = sheetsUrl.indexOf("&", gidStart);
-                    if (gidEnd == -1) gidEnd = sheetsUrl.length();
-                    gid = "&gid=" + sheetsUrl.substring(gidStart, gidEnd);
-                }
-                
-                return "https://docs.google.com/spreadsheets/d/" + sheetId + "/export?format=csv" + gid;
-            }
+            call.cancel();
+        }
+        inFlightCalls.clear();
+    }
+
+    private static Request buildRequest(RankSource source, RankSourceState state)
+    {
+        Request.Builder requestBuilder = new Request.Builder()
+            .header("User-Agent", "RuneLite-ClanRankHelper");
+
+        HttpUrl url = HttpUrl.parse(source.getUrl());
+        if (source.isDeltaSync() && state.getCursor() != null && url != null)
+        {
+            requestBuilder.url(url.newBuilder().setQueryParameter("since", state.getCursor()).build());
         }
-        catch (Exception e)
+        else
+        {
+            requestBuilder.url(source.getUrl());
+        }
+
+        if (source.getType() == RankSource.Type.API)
         {
-            log.error("Clan Rank Helper: Error parsing Google Sheets URL", e);
+            requestBuilder.header("Accept", "application/json");
         }
-        return null;
+        state.addConditionalHeaders(requestBuilder);
+        requestBuilder.tag(FetchTiming.class, new FetchTiming());
+        return requestBuilder.build();
     }
-    
-    private String[] parseCsvLine(String line)
+
+    private void recordFetch(RankSource source, Call call, int status)
     {
-        // Simple CSV parser that handles quoted values
-        java.util.List<String> result = new java.util.ArrayList<>();
-        StringBuilder current = new StringBuilder();
-        boolean inQuotes = false;
-        
-        for (int i = 0; i < line.length(); i++)
+        FetchTiming timing = call.request().tag(FetchTiming.class);
+        if (timing != null)
+        {
+            fetchStats.record(timing.toRecord(source.getLabel(), status));
+            timing.commitEvent(source.getLabel(), source.getUrl(), status);
+        }
+    }
+
+    /**
+     * Parses a response into {@code state}.
+     *
+     * @return true if the source now has different data
+     */
+    private boolean readResponse(RankSource source, RankSourceState state, Response response) throws IOException
+    {
+        if (response.code() == 304)
         {
-            char c = line.charAt(i);
-            
-            if (c == '"')
+            log.debug("Clan Rank Helper: {} data not modified", source.getLabel());
+            return false;
+        }
+
+        if (!response.isSuccessful())
+        {
+            log.error("Clan Rank Helper: {} returned non-200 response: {}", source.getLabel(), response.code());
+            return false;
+        }
+
+        // Parse straight from the body, hashing the bytes as they go by
+        MessageDigest digest = RankSourceState.newDigest();
+        Map<String, String> rankMap;
+        RankDataParser.ApiResponse api = null;
+        JfrEvents.ParseEvent parseEvent = new JfrEvents.ParseEvent();
+        parseEvent.begin();
+        long parseStart = System.nanoTime();
+        try (InputStream in = new DigestInputStream(response.body().byteStream(), digest))
+        {
+            Reader reader = new InputStreamReader(in, bodyCharset(response));
+            if (source.getType() == RankSource.Type.GOOGLE_SHEETS)
             {
-                inQuotes = !inQuotes;
+                rankMap = RankDataParser.readSheet(reader,
+                    source.getRsnIndex(), source.getRankIndex(), source.isSkipHeader());
             }
-            else if (c == ',' && !inQuotes)
+            else
             {
-                result.add(current.toString());
-                current = new StringBuilder();
+                api = RankDataParser.readApiResponse(gson.newJsonReader(reader));
+                rankMap = api.getEntries();
             }
-            else
+            drain(in);
+        }
+        long parseNanos = System.nanoTime() - parseStart;
+        parseEvent.end();
+
+        int parsed = api != null && api.isDelta()
+            ? api.getUpserts().size() + api.getRemovals().size()
+            : rankMap.size();
+        FetchTiming timing = response.request().tag(FetchTiming.class);
+        if (timing != null)
+        {
+            timing.parsed(parsed, parseNanos);
+        }
+        if (parseEvent.shouldCommit())
+        {
+            parseEvent.source = source.getLabel();
+            parseEvent.rows = parsed;
+            parseEvent.commit();
+        }
+
+        String hash = RankSourceState.encodeHash(digest.digest());
+        if (state.isUnchanged(hash))
+        {
+            log.debug("Clan Rank Helper: {} data unchanged", source.getLabel());
+            return false;
+        }
+
+        String cursor = api != null ? api.getCursor() : null;
+        if (api != null && api.isDelta())
+        {
+            Map<String, String> base = state.getRanks() != null ? state.getRanks() : Collections.emptyMap();
+            log.debug("Clan Rank Helper: {} delta with {} upserts and {} removals", source.getLabel(),
+                api.getUpserts().size(), api.getRemovals().size());
+            if (api.getUpserts().isEmpty() && api.getRemovals().isEmpty())
             {
-                current.append(c);
+                // Nothing to apply, but the cursor moved on
+                state.recordApplied(response, hash, base, cursor);
+                return false;
             }
+            rankMap = api.applyTo(base);
         }
-        result.add(current.toString());
-        
-        return result.toArray(new String[0]);
+
+        log.debug("Clan Rank Helper: Fetched {} entries from {}", rankMap.size(), source.getLabel());
+        state.recordApplied(response, hash, rankMap, cursor);
+        return true;
     }
-    
-    private void fetchFromApi(String apiUrl)
+
+    /**
+     * Merges the last known data of every source and applies the result.
+     */
+    private void applyMerged(List<RankSource> sources)
     {
-        try
+        Map<String, Map<String, String>> ranksByUrl = new LinkedHashMap<>();
+        for (RankSourceState state : statesOf(sources))
         {
-            log.debug("Clan Rank Helper: Fetching from {}", apiUrl);
-
-            Request request = new Request.Builder()
-                .url(apiUrl)
-                .header("Accept", "application/json")
-                .header("User-Agent", "RuneLite-ClanRankHelper")
-                .build();
-            
-            try (Response response = okHttpClient.newCall(request).execute())
+            if (state.getRanks() != null)
             {
-                if (!response.isSuccessful())
-                {
-                    log.error("Clan Rank Helper: API returned non-200 response: {}", response.code());
-                    return;
-                }
+                ranksByUrl.put(state.getUrl(), state.getRanks());
+            }
+        }
+        lastMergedUrls = urlsOf(sources);
 
-                String responseBody = response.body().string();
-                log.debug("Clan Rank Helper: Got response, parsing JSON...");
-                
-                // Parse the JSON response
-                Type listType = new TypeToken<List<RankEntry>>(){}.getType();
-                List<RankEntry> entries = gson.fromJson(responseBody, listType);
+        // Whatever the dataset holds came from sources no longer configured
+        if (ranksByUrl.isEmpty())
+        {
+            updateRankData(Collections.emptyMap());
+            return;
+        }
 
-                if (entries == null)
-                {
-                    log.error("Clan Rank Helper: Failed to parse JSON - entries is null");
-                    return;
-                }
+        JfrEvents.ApplyEvent event = new JfrEvents.ApplyEvent();
+        event.begin();
+        long start = System.nanoTime();
+        RankDataMerger.Result result = RankDataMerger.merge(ranksByUrl, config.sourcePrecedence());
+        reportConflicts(result.getConflicts());
+        int changed = updateRankData(result.getRanks());
+        fetchStats.recordApply(System.nanoTime() - start, dataset.size());
+        if (event.shouldCommit())
+        {
+            event.entries = dataset.size();
+            event.diffSize = changed;
+            event.commit();
+        }
+    }
 
-                // Convert to map: playerName -> targetRank
-                Map<String, String> rankMap = new HashMap<>();
-                for (RankEntry entry : entries)
-                {
-                    if (entry.mainRSN != null && !entry.mainRSN.isEmpty())
-                    {
-                        String normalizedName = entry.mainRSN.toLowerCase().trim();
-                        rankMap.put(normalizedName, entry.osrsName);
-                    }
-                }
+    private static void reportConflicts(List<RankDataMerger.Conflict> conflicts)
+    {
+        if (conflicts.isEmpty())
+        {
+            return;
+        }
 
-                log.debug("Clan Rank Helper: Fetched {} pending rank changes", rankMap.size());
-                updateRankData(rankMap);
+        log.warn("Clan Rank Helper: {} players have different ranks in different sources", conflicts.size());
+        int shown = Math.min(conflicts.size(), MAX_REPORTED_CONFLICTS);
+        for (int i = 0; i < shown; i++)
+        {
+            log.warn("Clan Rank Helper:   {}", conflicts.get(i));
+        }
+        if (conflicts.size() > shown)
+        {
+            log.warn("Clan Rank Helper:   ... and {} more", conflicts.size() - shown);
+        }
+    }
+
+    private static List<String> urlsOf(List<RankSource> sources)
+    {
+        List<String> urls = new ArrayList<>(sources.size());
+        for (RankSource source : sources)
+        {
+            urls.add(source.getUrl());
+        }
+        return urls;
+    }
+
+    // States of the given sources, in the same order
+    private List<RankSourceState> statesOf(List<RankSource> sources)
+    {
+        List<RankSourceState> states = new ArrayList<>(sources.size());
+        for (RankSource source : sources)
+        {
+            RankSourceState state = sourceStates.get(source.getUrl());
+            if (state != null && state.matches(source.getUrl(), source.getParseKey()))
+            {
+                states.add(state);
             }
         }
-        catch (Exception e)
+        return states;
+    }
+
+    /**
+     * State for the given source, reusing the last one only if it describes
+     * the same URL parsed the same way.
+     */
+    private RankSourceState sourceStateFor(RankSource source)
+    {
+        RankSourceState state = sourceStates.get(source.getUrl());
+        if (state == null || !state.matches(source.getUrl(), source.getParseKey()))
         {
-            log.error("Clan Rank Helper: Failed to fetch rank data", e);
+            state = new RankSourceState(source.getUrl(), source.getParseKey());
+            sourceStates.put(source.getUrl(), state);
         }
+        return state;
     }
 
-    private void updateRankData(Map<String, String> newData)
+    // Reads whatever is left of a stream, e.g. so a digest covers all of it
+    private static void drain(InputStream in) throws IOException
     {
-        pendingRankChanges.clear();
-        pendingRankChanges.putAll(newData);
-        confirmedNeedsChange.clear();
-        confirmedOk.clear();
-        log.debug("Updated rank data: {} pending changes", pendingRankChanges.size());
+        byte[] buf = new byte[8192];
+        while (in.read(buf) != -1)
+        {
+            // discard
+        }
+    }
+
+    private static Charset bodyCharset(Response response)
+    {
+        MediaType contentType = response.body().contentType();
+        return contentType != null ? contentType.charset(StandardCharsets.UTF_8) : StandardCharsets.UTF_8;
+    }
+
+    /**
+     * @return the number of players added, removed or given a different rank
+     */
+    private int updateRankData(Map<String, String> newData)
+    {
+        RankDataset next = RankDataset.of(newData);
+        Set<String> changed = next.changedPlayers(dataset);
+        if (changed.isEmpty())
+        {
+            log.debug("Rank data unchanged: {} pending changes", next.size());
+            return 0;
+        }
+
+        // Swap first so readers never see a partially applied refresh, then
+        // drop the confirmations that no longer hold for the new targets
+        dataset = next;
+        confirmedNeedsChange.removeAll(changed);
+        confirmedOk.removeAll(changed);
+        ranksNeededViewDirty.set(true);
+        log.debug("Updated rank data: {} pending changes, {} changed", next.size(), changed.size());
+        return changed.size();
     }
     
-    public void markNeedsChange(String playerName)
+    /**
+     * Records that every clan member was checked against {@code ranks}, the
+     * normalized rank data, so players still unchecked aren't in the clan.
+     */
+    void markRosterChecked(Map<String, String> ranks)
     {
-        String lower = playerName.toLowerCase();
-        confirmedNeedsChange.add(lower);
-        confirmedOk.remove(lower);
+        if (rosterCheckedRanks != ranks)
+        {
+            rosterCheckedRanks = ranks;
+            ranksNeededViewDirty.set(true);
+        }
+    }
+
+    /**
+     * @param normalizedName player name as returned by {@link RankText#normalizeName}
+     */
+    public void markNeedsChange(String normalizedName)
+    {
+        if (confirmedNeedsChange.add(normalizedName))
+        {
+            confirmedOk.remove(normalizedName);
+            ranksNeededViewDirty.set(true);
+        }
     }
     
-    public void markConfirmedOk(String playerName)
+    /**
+     * @param normalizedName player name as returned by {@link RankText#normalizeName}
+     */
+    public void markConfirmedOk(String normalizedName)
     {
-        String lower = playerName.toLowerCase();
-        confirmedOk.add(lower);
-        confirmedNeedsChange.remove(lower);
+        if (confirmedOk.add(normalizedName))
+        {
+            confirmedNeedsChange.remove(normalizedName);
+            ranksNeededViewDirty.set(true);
+        }
     }
 
-    @Provides
-    ClanRankHelperConfig provideConfig(ConfigManager configManager)
+    /**
+     * The "Ranks Needed" panel contents, rebuilt only if the rank data, the
+     * confirmed sets or the config changed since the last call.
+     */
+    public RanksNeededView getRanksNeededView()
     {
-        return configManager.getConfig(ClanRankHelperConfig.class);
+        if (ranksNeededViewDirty.getAndSet(false))
+        {
+            RankDataset current = dataset;
+            ranksNeededView = RanksNeededView.build(ranksNeededView.getVersion() + 1, current.getRanks(),
+                confirmedNeedsChange, confirmedOk, configSnapshot, config.maxDisplayed(),
+                rosterCheckedRanks == current.getRanksByNormalizedName());
+        }
+        return ranksNeededView;
     }
 
-    // Inner class for JSON parsing
-    private static class RankEntry
+    @Provides
+    ClanRankHelperConfig provideConfig(ConfigManager configManager)
     {
-        String mainRSN;
-        String osrsName;
+        return configManager.getConfig(ClanRankHelperConfig.class);
     }
 }
@@ -0,0 +1,174 @@
+package com.clanrankhelper;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.clan.ClanMember;
+import net.runelite.api.clan.ClanSettings;
+import net.runelite.api.clan.ClanTitle;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Checks every clan member's rank straight from the client's clan settings
+ * data, so admins don't have to scroll through the whole member list.
+ *
+ * The whole roster is joined against the rank data in one pass whenever the
+ * clan settings, the rank data or the config change. The member-list
+ * scraper in {@link MemberListReconciler} keeps running as a fallback, e.g.
+ * for clans whose settings the client hasn't loaded. Client thread only.
+ */
+@Slf4j
+@Singleton
+class ClanRosterReconciler
+{
+    private final Client client;
+    private final ClanRankHelperPlugin plugin;
+    private final ClanRankHelperConfig config;
+    private final MemberListWidgets memberListWidgets;
+    private final WidgetTextCache textCache;
+
+    // What the last pass was run against
+    private ClanSettings lastSettings;
+    private int lastMemberCount = -1;
+    private int lastRosterHash;
+    private int lastWidgetGeneration = -1;
+    private Map<String, String> lastRankChanges;
+    private RankConfigSnapshot lastConfigSnapshot;
+
+    @Inject
+    ClanRosterReconciler(Client client, ClanRankHelperPlugin plugin, ClanRankHelperConfig config,
+                         MemberListWidgets memberListWidgets, WidgetTextCache textCache)
+    {
+        this.client = client;
+        this.plugin = plugin;
+        this.config = config;
+        this.memberListWidgets = memberListWidgets;
+        this.textCache = textCache;
+    }
+
+    /**
+     * Forces the next {@link #reconcile()} to run a full pass.
+     */
+    void invalidate()
+    {
+        lastSettings = null;
+        lastMemberCount = -1;
+        lastRosterHash = 0;
+        lastWidgetGeneration = -1;
+        lastRankChanges = null;
+        lastConfigSnapshot = null;
+    }
+
+    void reconcile()
+    {
+        if (!config.reconcileFromRoster())
+        {
+            return;
+        }
+
+        ClanSettings settings = client.getClanSettings();
+        if (settings == null)
+        {
+            return;
+        }
+
+        Map<String, String> pendingChanges = plugin.getDataset().getRanksByNormalizedName();
+        if (pendingChanges.isEmpty())
+        {
+            return;
+        }
+
+        List<ClanMember> members = settings.getMembers();
+        RankConfigSnapshot configSnapshot = plugin.getConfigSnapshot();
+
+        // Rank edits update the settings in place; they redraw the member
+        // list if it is open, which bumps the widget generation, but while
+        // it is closed only the roster hash gives them away
+        int widgetGeneration = memberListWidgets.getGeneration();
+        int rosterHash = rosterHash(members);
+        if (settings == lastSettings
+            && members.size() == lastMemberCount
+            && rosterHash == lastRosterHash
+            && widgetGeneration == lastWidgetGeneration
+            && pendingChanges == lastRankChanges
+            && configSnapshot == lastConfigSnapshot)
+        {
+            return;
+        }
+
+        lastSettings = settings;
+        lastMemberCount = members.size();
+        lastRosterHash = rosterHash;
+        lastWidgetGeneration = widgetGeneration;
+        lastRankChanges = pendingChanges;
+        lastConfigSnapshot = configSnapshot;
+
+        int matched = 0;
+        // Whether every member in the rank data got checked
+        boolean complete = true;
+        for (ClanMember member : members)
+        {
+            String name = member.getName();
+            if (name == null || name.isEmpty())
+            {
+                continue;
+            }
+
+            String normalizedName = textCache.get(name).getNormalized();
+            String targetRank = pendingChanges.get(normalizedName);
+            if (targetRank == null)
+            {
+                continue;
+            }
+
+            // Ignored players are in the clan, they just never need a change
+            if (configSnapshot.isPlayerIgnored(normalizedName))
+            {
+                plugin.markConfirmedOk(normalizedName);
+                continue;
+            }
+
+            ClanTitle title = settings.titleForRank(member.getRank());
+            if (title == null || title.getName() == null)
+            {
+                // Rank unknown, so the member list scraper has to check them
+                complete = false;
+                continue;
+            }
+
+            String currentRank = title.getName();
+            matched++;
+
+            if (configSnapshot.isRankIgnored(currentRank) || currentRank.equalsIgnoreCase(targetRank))
+            {
+                plugin.markConfirmedOk(normalizedName);
+            }
+            else
+            {
+                plugin.markNeedsChange(normalizedName);
+            }
+        }
+
+        if (complete)
+        {
+            plugin.markRosterChecked(pendingChanges);
+        }
+        log.debug("Checked {} of {} clan members against rank data", matched, members.size());
+    }
+
+    // Cheap enough to compute every tick, unlike a full pass
+    private static int rosterHash(List<ClanMember> members)
+    {
+        int hash = 1;
+        for (ClanMember member : members)
+        {
+            hash = 31 * hash + Objects.hashCode(member.getName());
+            hash = 31 * hash + (member.getRank() != null ? member.getRank().getRank() : -1);
+        }
+        return hash;
+    }
+}
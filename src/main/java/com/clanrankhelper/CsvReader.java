@@ -0,0 +1,175 @@
+package com.clanrankhelper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streaming RFC 4180 CSV reader.
+ *
+ * Handles quoted cells, escaped quotes ({@code ""}), quoted line breaks and
+ * any of CRLF, LF or CR as record separator. Only the cells the caller asks
+ * for are turned into strings; every other cell is skipped as it is read,
+ * so wide sheets cost little more than narrow ones.
+ */
+final class CsvReader implements Closeable
+{
+    private static final int EOF = -1;
+
+    private final Reader in;
+    private final char[] buf = new char[8192];
+    private int pos;
+    private int limit;
+
+    // Reused for every materialized cell
+    private final StringBuilder cell = new StringBuilder();
+
+    CsvReader(Reader in)
+    {
+        this.in = in;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @param columns 0-based indexes of the cells to keep
+     * @param out     receives the cell for {@code columns[i]} at index
+     *                {@code i}, or null if the record has no such cell
+     * @return the number of cells in the record, or -1 at end of input
+     */
+    int readRecord(int[] columns, String[] out) throws IOException
+    {
+        int c = read();
+        if (c == EOF)
+        {
+            return -1;
+        }
+
+        for (int i = 0; i < out.length; i++)
+        {
+            out[i] = null;
+        }
+
+        int column = 0;
+        while (true)
+        {
+            boolean keep = isWanted(columns, column);
+            if (keep)
+            {
+                cell.setLength(0);
+            }
+
+            if (c == '"')
+            {
+                // Quoted cell: runs to the next lone quote
+                while (true)
+                {
+                    c = read();
+                    if (c == EOF)
+                    {
+                        break;
+                    }
+                    if (c == '"')
+                    {
+                        c = read();
+                        if (c != '"')
+                        {
+                            break;
+                        }
+                    }
+                    if (keep)
+                    {
+                        cell.append((char) c);
+                    }
+                }
+            }
+
+            // Unquoted cell, or anything after the closing quote
+            while (c != EOF && c != ',' && c != '\n' && c != '\r')
+            {
+                if (keep)
+                {
+                    cell.append((char) c);
+                }
+                c = read();
+            }
+
+            if (keep)
+            {
+                String value = cell.toString();
+                for (int i = 0; i < columns.length; i++)
+                {
+                    if (columns[i] == column)
+                    {
+                        out[i] = value;
+                    }
+                }
+            }
+            column++;
+
+            if (c == ',')
+            {
+                c = read();
+                continue;
+            }
+
+            if (c == '\r')
+            {
+                // CRLF counts as a single separator
+                if (peek() == '\n')
+                {
+                    read();
+                }
+            }
+            return column;
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        in.close();
+    }
+
+    private static boolean isWanted(int[] columns, int column)
+    {
+        for (int c : columns)
+        {
+            if (c == column)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int read() throws IOException
+    {
+        if (pos == limit && !fill())
+        {
+            return EOF;
+        }
+        return buf[pos++];
+    }
+
+    private int peek() throws IOException
+    {
+        if (pos == limit && !fill())
+        {
+            return EOF;
+        }
+        return buf[pos];
+    }
+
+    private boolean fill() throws IOException
+    {
+        int n = in.read(buf, 0, buf.length);
+        if (n <= 0)
+        {
+            return false;
+        }
+        pos = 0;
+        limit = n;
+        return true;
+    }
+}
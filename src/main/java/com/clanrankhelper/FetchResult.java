@@ -0,0 +1,109 @@
+package com.clanrankhelper;
+
+import lombok.Getter;
+import okhttp3.Response;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How a refresh went, as far as scheduling the next one is concerned.
+ */
+final class FetchResult
+{
+    // Fetched, not modified or nothing to fetch
+    static final FetchResult OK = new FetchResult(false, 0);
+
+    static final FetchResult FAILED = new FetchResult(true, 0);
+
+    // Longest Retry-After honoured, as long as our own longest backoff; a
+    // bad header must not stop refreshing for the rest of the session
+    static final long MAX_RETRY_AFTER_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Getter
+    private final boolean failed;
+
+    // How long the server asked us to wait, 0 if it didn't say
+    @Getter
+    private final long retryAfterMillis;
+
+    private FetchResult(boolean failed, long retryAfterMillis)
+    {
+        this.failed = failed;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    static FetchResult failedRetryAfter(long retryAfterMillis)
+    {
+        return new FetchResult(true, retryAfterMillis);
+    }
+
+    static FetchResult forResponse(Response response)
+    {
+        int code = response.code();
+        if (code == 429 || code >= 500)
+        {
+            long retryAfter = parseRetryAfter(response.header("Retry-After"), System.currentTimeMillis());
+            return retryAfter > 0 ? failedRetryAfter(retryAfter) : FAILED;
+        }
+        return response.isSuccessful() || code == 304 ? OK : FAILED;
+    }
+
+    /**
+     * The worse of the two, for a refresh made of several requests.
+     */
+    FetchResult combine(FetchResult other)
+    {
+        if (!other.failed)
+        {
+            return this;
+        }
+        if (!failed)
+        {
+            return other;
+        }
+        return retryAfterMillis >= other.retryAfterMillis ? this : other;
+    }
+
+    /**
+     * Parses a {@code Retry-After} header, either delay-seconds or an HTTP
+     * date.
+     *
+     * @return milliseconds to wait, at most {@link #MAX_RETRY_AFTER_MILLIS},
+     *         or 0 if absent or unparseable
+     */
+    static long parseRetryAfter(String header, long now)
+    {
+        if (header == null || header.isEmpty())
+        {
+            return 0;
+        }
+
+        try
+        {
+            return clamp(TimeUnit.SECONDS.toMillis(Long.parseLong(header.trim())));
+        }
+        catch (NumberFormatException e)
+        {
+            // Not seconds, try a date
+        }
+
+        try
+        {
+            long at = ZonedDateTime.parse(header.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                .toInstant().toEpochMilli();
+            return clamp(at - now);
+        }
+        catch (DateTimeParseException e)
+        {
+            return 0;
+        }
+    }
+
+    private static long clamp(long retryAfterMillis)
+    {
+        return Math.max(0, Math.min(retryAfterMillis, MAX_RETRY_AFTER_MILLIS));
+    }
+}
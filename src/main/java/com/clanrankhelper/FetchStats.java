@@ -0,0 +1,161 @@
+package com.clanrankhelper;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Singleton;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling history of recent fetches and dataset applies, for the debug
+ * section of the overlay and the log.
+ */
+@Slf4j
+@Singleton
+class FetchStats
+{
+    static final int HISTORY_SIZE = 20;
+
+    /**
+     * One request. Durations are in nanoseconds; the body is parsed while
+     * it streams in, so transfer and parse overlap.
+     */
+    static final class Record
+    {
+        @Getter
+        private final long time;
+
+        @Getter
+        private final String source;
+
+        // HTTP status, 0 if the request failed
+        @Getter
+        private final int status;
+
+        // Body bytes read, -1 if unknown
+        @Getter
+        private final long bytes;
+
+        // Entries parsed, -1 if the body wasn't parsed
+        @Getter
+        private final int entries;
+
+        @Getter
+        private final long dnsNanos;
+
+        @Getter
+        private final long connectNanos;
+
+        // Request sent to response headers received
+        @Getter
+        private final long waitNanos;
+
+        @Getter
+        private final long transferNanos;
+
+        @Getter
+        private final long parseNanos;
+
+        @Getter
+        private final long totalNanos;
+
+        Record(long time, String source, int status, long bytes, int entries, long dnsNanos, long connectNanos,
+               long waitNanos, long transferNanos, long parseNanos, long totalNanos)
+        {
+            this.time = time;
+            this.source = source;
+            this.status = status;
+            this.bytes = bytes;
+            this.entries = entries;
+            this.dnsNanos = dnsNanos;
+            this.connectNanos = connectNanos;
+            this.waitNanos = waitNanos;
+            this.transferNanos = transferNanos;
+            this.parseNanos = parseNanos;
+            this.totalNanos = totalNanos;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "source=" + source
+                + " status=" + status
+                + " bytes=" + bytes
+                + " entries=" + entries
+                + " dnsMs=" + millis(dnsNanos)
+                + " connectMs=" + millis(connectNanos)
+                + " waitMs=" + millis(waitNanos)
+                + " transferMs=" + millis(transferNanos)
+                + " parseMs=" + millis(parseNanos)
+                + " totalMs=" + millis(totalNanos);
+        }
+    }
+
+    private final Deque<Record> history = new ArrayDeque<>(HISTORY_SIZE);
+
+    @Getter
+    private volatile long lastApplyNanos;
+
+    @Getter
+    private volatile int lastApplyEntries;
+
+    // Bumped on every change, so the overlay knows when to rebuild
+    @Getter
+    private volatile int version;
+
+    void record(Record record)
+    {
+        synchronized (history)
+        {
+            if (history.size() == HISTORY_SIZE)
+            {
+                history.removeFirst();
+            }
+            history.addLast(record);
+            version++;
+        }
+        log.debug("Clan Rank Helper fetch: {}", record);
+    }
+
+    void recordApply(long nanos, int entries)
+    {
+        lastApplyNanos = nanos;
+        lastApplyEntries = entries;
+        synchronized (history)
+        {
+            version++;
+        }
+        log.debug("Clan Rank Helper apply: entries={} applyMs={}", entries, millis(nanos));
+    }
+
+    /**
+     * Oldest first.
+     */
+    List<Record> getHistory()
+    {
+        synchronized (history)
+        {
+            return new ArrayList<>(history);
+        }
+    }
+
+    void clear()
+    {
+        synchronized (history)
+        {
+            history.clear();
+            lastApplyNanos = 0;
+            lastApplyEntries = 0;
+            version++;
+        }
+    }
+
+    static long millis(long nanos)
+    {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,149 @@
+package com.clanrankhelper;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * Phase timings of one request, collected by OkHttp's event callbacks.
+ *
+ * An instance is attached to a request as its tag and {@link #FACTORY}
+ * hands it to OkHttp as the listener for that call, so every request gets
+ * its own timings and untagged requests cost nothing.
+ */
+final class FetchTiming extends EventListener
+{
+    static final EventListener.Factory FACTORY = call ->
+    {
+        FetchTiming timing = call.request().tag(FetchTiming.class);
+        return timing != null ? timing : EventListener.NONE;
+    };
+
+    // System.nanoTime() of each event, 0 if it didn't happen (e.g. no DNS
+    // lookup or connect for a pooled connection)
+    private volatile long callStart;
+    private volatile long dnsStart;
+    private volatile long dnsEnd;
+    private volatile long connectStart;
+    private volatile long connectEnd;
+    private volatile long requestStart;
+    private volatile long responseHeadersEnd;
+    private volatile long responseBodyEnd;
+    private volatile long bodyBytes = -1;
+
+    // Filled in by the caller once the body is parsed
+    private volatile int entries = -1;
+    private volatile long parseNanos;
+
+    // Spans the same call for flight recordings
+    private final JfrEvents.FetchEvent event = new JfrEvents.FetchEvent();
+
+    @Override
+    public void callStart(Call call)
+    {
+        callStart = System.nanoTime();
+        event.begin();
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName)
+    {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> addresses)
+    {
+        dnsEnd = System.nanoTime();
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress address, Proxy proxy)
+    {
+        connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol)
+    {
+        connectEnd = System.nanoTime();
+    }
+
+    @Override
+    public void requestHeadersStart(Call call)
+    {
+        requestStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response)
+    {
+        responseHeadersEnd = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount)
+    {
+        responseBodyEnd = System.nanoTime();
+        bodyBytes = byteCount;
+        event.end();
+    }
+
+    void parsed(int entries, long parseNanos)
+    {
+        this.entries = entries;
+        this.parseNanos = parseNanos;
+    }
+
+    /**
+     * Commits the flight recorder event for this call, once it is done.
+     *
+     * @param status HTTP status, or 0 if the request failed
+     */
+    void commitEvent(String source, String url, int status)
+    {
+        if (event.shouldCommit())
+        {
+            event.source = source;
+            event.url = url;
+            event.status = status;
+            event.bytes = bodyBytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * What is known so far, for a request whose body has been read.
+     *
+     * @param status HTTP status, or 0 if the request failed
+     */
+    FetchStats.Record toRecord(String source, int status)
+    {
+        long now = System.nanoTime();
+        long bodyEnd = responseBodyEnd != 0 ? responseBodyEnd : now;
+        return new FetchStats.Record(
+            System.currentTimeMillis(),
+            source,
+            status,
+            bodyBytes,
+            entries,
+            span(dnsStart, dnsEnd),
+            span(connectStart, connectEnd),
+            span(requestStart, responseHeadersEnd),
+            span(responseHeadersEnd, bodyEnd),
+            parseNanos,
+            span(callStart, now)
+        );
+    }
+
+    private static long span(long start, long end)
+    {
+        return start != 0 && end >= start ? end - start : 0;
+    }
+}
@@ -0,0 +1,96 @@
+package com.clanrankhelper;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the plugin's work, so a recording shows
+ * it next to the client's frames and GC pauses.
+ *
+ * Use them as {@code begin()}, the work, then set the fields and
+ * {@code commit()} only if {@code shouldCommit()}. Unless a recording has
+ * them enabled, that is a few field writes and a flag check.
+ */
+final class JfrEvents
+{
+    private static final String CATEGORY = "Clan Rank Helper";
+
+    private JfrEvents()
+    {
+    }
+
+    @Name("com.clanrankhelper.Fetch")
+    @Label("Rank Data Fetch")
+    @Description("One request to a rank data source, from the call starting to the body being read")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class FetchEvent extends Event
+    {
+        @Label("Source")
+        String source;
+
+        @Label("URL")
+        String url;
+
+        @Label("Status")
+        @Description("HTTP status, 0 if the request failed")
+        int status;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("com.clanrankhelper.Parse")
+    @Label("Rank Data Parse")
+    @Description("Parsing a response body while it streams in")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class ParseEvent extends Event
+    {
+        @Label("Source")
+        String source;
+
+        @Label("Rows")
+        @Description("Entries parsed, or upserts and removals for a delta")
+        int rows;
+    }
+
+    @Name("com.clanrankhelper.Apply")
+    @Label("Rank Data Apply")
+    @Description("Merging the sources and swapping in the new dataset")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class ApplyEvent extends Event
+    {
+        @Label("Entries")
+        int entries;
+
+        @Label("Changed")
+        @Description("Players added, removed or given a different rank")
+        int diffSize;
+    }
+
+    @Name("com.clanrankhelper.Reconcile")
+    @Label("Member List Reconcile")
+    @Description("A pass matching the visible member list rows against the rank data")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class ReconcileEvent extends Event
+    {
+        @Label("Rows")
+        int rows;
+
+        @Label("Matches")
+        @Description("Rows of players in the rank data")
+        int matches;
+
+        @Label("Highlights")
+        int highlights;
+    }
+}
@@ -0,0 +1,272 @@
+package com.clanrankhelper;
+
+import lombok.Getter;
+import net.runelite.api.Client;
+import net.runelite.api.widgets.Widget;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the visible member-list rows against the rank data and records
+ * the result.
+ *
+ * Runs on the client thread before each frame, but only does any work when
+ * the member list, the rank data or the config has changed since the last
+ * pass. The outcome is an immutable list of {@link Highlight}s that
+ * {@link ClanChatOverlay} simply draws.
+ */
+@Singleton
+class MemberListReconciler
+{
+    /**
+     * One row to highlight. Colours and the rank badge are looked up per
+     * target rank when drawing, see {@link ClanChatOverlay}.
+     */
+    static final class Highlight
+    {
+        @Getter
+        private final Rectangle bounds;
+
+        @Getter
+        private final String targetRank;
+
+        private Highlight(Rectangle bounds, String targetRank)
+        {
+            this.bounds = bounds;
+            this.targetRank = targetRank;
+        }
+    }
+
+    private final Client client;
+    private final ClanRankHelperPlugin plugin;
+    private final ClanRankHelperConfig config;
+    private final MemberListWidgets memberListWidgets;
+    private final WidgetTextCache textCache;
+    private final RenderProfiler profiler;
+
+    // What the current highlights were computed from
+    private Map<String, String> lastRankChanges;
+    private RankConfigSnapshot lastConfigSnapshot;
+
+    @Getter
+    private volatile List<Highlight> highlights = Collections.emptyList();
+
+    // Counted for the render profiler during a pass
+    private int widgetsVisited;
+    private int rowsMatched;
+
+    @Inject
+    MemberListReconciler(Client client, ClanRankHelperPlugin plugin, ClanRankHelperConfig config,
+                         MemberListWidgets memberListWidgets, WidgetTextCache textCache, RenderProfiler profiler)
+    {
+        this.client = client;
+        this.plugin = plugin;
+        this.config = config;
+        this.memberListWidgets = memberListWidgets;
+        this.textCache = textCache;
+        this.profiler = profiler;
+    }
+
+    /**
+     * Drops the current highlights and forces the next {@link #reconcile()}
+     * to run a full pass.
+     */
+    void clear()
+    {
+        highlights = Collections.emptyList();
+        lastRankChanges = null;
+        lastConfigSnapshot = null;
+    }
+
+    void reconcile()
+    {
+        widgetsVisited = 0;
+        rowsMatched = 0;
+
+        if (!profiler.isEnabled())
+        {
+            update();
+            return;
+        }
+
+        long allocated = profiler.allocatedBytes();
+        long start = System.nanoTime();
+        update();
+        profiler.getMemberList().beforeFrame(System.nanoTime() - start, profiler.allocatedSince(allocated),
+            widgetsVisited, rowsMatched);
+    }
+
+    private void commitEvent(JfrEvents.ReconcileEvent event)
+    {
+        if (event.shouldCommit())
+        {
+            event.rows = widgetsVisited;
+            event.matches = rowsMatched;
+            event.highlights = highlights.size();
+            event.commit();
+        }
+    }
+
+    private void update()
+    {
+        if (!config.highlightInChat())
+        {
+            clear();
+            return;
+        }
+
+        Map<String, String> pendingChanges = plugin.getDataset().getRanksByNormalizedName();
+        if (pendingChanges.isEmpty())
+        {
+            clear();
+            return;
+        }
+
+        Widget root = client.getWidget(MemberListWidgets.CLAN_SETTINGS_GROUP_ID, 0);
+        if (root == null || root.isHidden())
+        {
+            clear();
+            return;
+        }
+
+        Widget memberPanel = client.getWidget(MemberListWidgets.CLAN_SETTINGS_GROUP_ID, MemberListWidgets.CLAN_MEMBER_PANEL_CHILD);
+        if (memberPanel == null || memberPanel.isHidden())
+        {
+            clear();
+            return;
+        }
+
+        Rectangle viewport = memberPanel.getBounds();
+        if (viewport == null || viewport.width <= 0 || viewport.height <= 0)
+        {
+            clear();
+            return;
+        }
+
+        Widget nameColumn = client.getWidget(MemberListWidgets.CLAN_SETTINGS_GROUP_ID, MemberListWidgets.CLAN_MEMBER_NAME_CHILD);
+        if (nameColumn == null || nameColumn.isHidden())
+        {
+            clear();
+            return;
+        }
+
+        boolean widgetsChanged = memberListWidgets.refresh(memberPanel, viewport, nameColumn);
+        RankConfigSnapshot configSnapshot = plugin.getConfigSnapshot();
+        if (!widgetsChanged && pendingChanges == lastRankChanges && configSnapshot == lastConfigSnapshot)
+        {
+            return;
+        }
+
+        lastRankChanges = pendingChanges;
+        lastConfigSnapshot = configSnapshot;
+
+        // Only passes that look at the rows are recorded, and the event is
+        // only created for them so steady frames allocate nothing
+        JfrEvents.ReconcileEvent event = new JfrEvents.ReconcileEvent();
+        event.begin();
+        highlights = computeHighlights(viewport, pendingChanges, configSnapshot);
+        commitEvent(event);
+    }
+
+    private List<Highlight> computeHighlights(Rectangle viewport, Map<String, String> pendingChanges,
+                                              RankConfigSnapshot configSnapshot)
+    {
+        MemberListRowIndex rowIndex = memberListWidgets.getRowIndex();
+        if (rowIndex.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+
+        List<Highlight> result = new ArrayList<>();
+        for (Widget nameWidget : memberListWidgets.getNameTextWidgets())
+        {
+            if (nameWidget == null)
+            {
+                continue;
+            }
+            widgetsVisited++;
+
+            String raw = nameWidget.getText();
+            if (raw == null || raw.isEmpty())
+            {
+                continue;
+            }
+
+            Rectangle nameBounds = nameWidget.getBounds();
+            if (nameBounds == null)
+            {
+                continue;
+            }
+
+            // Only process visible rows
+            if (!viewport.intersects(nameBounds))
+            {
+                continue;
+            }
+
+            WidgetTextCache.TextInfo nameInfo = textCache.get(raw);
+            if (nameInfo.getClean().isEmpty())
+            {
+                continue;
+            }
+
+            String normalizedName = nameInfo.getNormalized();
+            if (configSnapshot.isPlayerIgnored(normalizedName))
+            {
+                continue;
+            }
+
+            String targetRank = pendingChanges.get(normalizedName);
+            if (targetRank == null)
+            {
+                continue;
+            }
+            rowsMatched++;
+
+            // New: rank detection without a whitelist
+            String currentRank = findCurrentRankForPlayer(rowIndex, nameWidget, nameBounds, normalizedName);
+            if (currentRank == null || currentRank.isEmpty())
+            {
+                continue;
+            }
+
+            if (configSnapshot.isRankIgnored(currentRank))
+            {
+                plugin.markConfirmedOk(normalizedName);
+                continue;
+            }
+
+            if (!currentRank.equalsIgnoreCase(targetRank))
+            {
+                plugin.markNeedsChange(normalizedName);
+                result.add(new Highlight(nameBounds, targetRank));
+            }
+            else
+            {
+                plugin.markConfirmedOk(normalizedName);
+            }
+        }
+
+        return Collections.unmodifiableList(result);
+    }
+
+    // -----------------------
+    // Rank detection (NO whitelist)
+    // -----------------------
+    private String findCurrentRankForPlayer(MemberListRowIndex rowIndex, Widget nameWidget,
+                                            Rectangle nameBounds, String playerNameNorm)
+    {
+        // Nearest widget to the RIGHT of the name text (after the name ends)
+        MemberListRowIndex.Cell best = rowIndex.findRightOf(nameWidget, nameBounds, cell ->
+            // Don’t treat the name itself as the rank, and only accept text that looks like a rank
+            cell.getTextInfo().isRankLike() && !cell.getTextInfo().getNormalized().equals(playerNameNorm));
+
+        return best == null ? null : best.getText();
+    }
+}
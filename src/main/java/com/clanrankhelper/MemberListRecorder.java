@@ -0,0 +1,137 @@
+package com.clanrankhelper;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.widgets.Widget;
+import net.runelite.client.RuneLite;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Records the clan settings interface while the "Record Member List" debug
+ * option is on: a {@link WidgetTreeRecording} frame every time the member
+ * list is scrolled or redrawn, written out when recording stops. The files
+ * can be replayed by the member list tests.
+ */
+@Slf4j
+@Singleton
+class MemberListRecorder
+{
+    private static final File RECORDINGS_DIR = new File(new File(RuneLite.RUNELITE_DIR, "clan-rank-helper"), "recordings");
+
+    // Enough for scrolling through a full clan a few times
+    private static final int MAX_FRAMES = 2000;
+
+    private final Client client;
+    private final MemberListWidgets memberListWidgets;
+
+    private final List<WidgetTreeRecording.Frame> frames = new ArrayList<>();
+    private volatile boolean recording;
+
+    // What the last frame was captured at
+    private int lastGeneration = -1;
+    private int lastScrollY = -1;
+
+    @Inject
+    MemberListRecorder(Client client, MemberListWidgets memberListWidgets)
+    {
+        this.client = client;
+        this.memberListWidgets = memberListWidgets;
+    }
+
+    void start()
+    {
+        synchronized (frames)
+        {
+            frames.clear();
+            lastGeneration = -1;
+            lastScrollY = -1;
+            recording = true;
+        }
+        log.debug("Clan Rank Helper: Recording the member list");
+    }
+
+    /**
+     * Captures a frame if the member list changed since the last one. Runs
+     * on the client thread, before each frame.
+     */
+    void capture()
+    {
+        if (!recording)
+        {
+            return;
+        }
+
+        Widget panel = client.getWidget(MemberListWidgets.CLAN_SETTINGS_GROUP_ID, MemberListWidgets.CLAN_MEMBER_PANEL_CHILD);
+        if (panel == null || panel.isHidden())
+        {
+            return;
+        }
+
+        int generation = memberListWidgets.getGeneration();
+        int scrollY = panel.getScrollY();
+        synchronized (frames)
+        {
+            if (!recording || (generation == lastGeneration && scrollY == lastScrollY))
+            {
+                return;
+            }
+            if (frames.size() >= MAX_FRAMES)
+            {
+                log.warn("Clan Rank Helper: Member list recording is full at {} frames", MAX_FRAMES);
+                recording = false;
+                return;
+            }
+
+            frames.add(WidgetTreeRecording.capture(client, MemberListWidgets.CLAN_SETTINGS_GROUP_ID));
+            lastGeneration = generation;
+            lastScrollY = scrollY;
+        }
+    }
+
+    /**
+     * Stops recording and writes what was recorded, if anything.
+     */
+    void stop()
+    {
+        List<WidgetTreeRecording.Frame> recorded;
+        synchronized (frames)
+        {
+            if (!recording && frames.isEmpty())
+            {
+                return;
+            }
+            recording = false;
+            recorded = new ArrayList<>(frames);
+            frames.clear();
+        }
+
+        if (recorded.isEmpty())
+        {
+            log.debug("Clan Rank Helper: Nothing recorded, was the member list open?");
+            return;
+        }
+
+        String name = "member-list-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".txt.gz";
+        File file = new File(RECORDINGS_DIR, name);
+        RECORDINGS_DIR.mkdirs();
+        try (OutputStream out = new FileOutputStream(file))
+        {
+            WidgetTreeRecording.write(recorded, out);
+            log.info("Clan Rank Helper: Recorded {} member list frames to {}", recorded.size(), file);
+        }
+        catch (IOException e)
+        {
+            log.warn("Clan Rank Helper: Unable to write member list recording", e);
+        }
+    }
+}
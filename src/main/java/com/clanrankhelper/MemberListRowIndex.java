@@ -0,0 +1,244 @@
+package com.clanrankhelper;
+
+import lombok.Getter;
+import net.runelite.api.widgets.Widget;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Text widgets of the member list grouped into rows.
+ *
+ * Widgets are bucketed into bands of Y coordinates no more than
+ * {@link #ROW_Y_TOLERANCE} apart, and each band is sorted by X, so a cell
+ * in the same row as a name (rank, world, join date, ...) can be found with
+ * a binary search instead of a scan over every widget. Instances are
+ * immutable and rebuilt whenever {@link MemberListWidgets} re-collects.
+ */
+final class MemberListRowIndex
+{
+    // Row alignment tolerance in pixels
+    static final int ROW_Y_TOLERANCE = 15;
+
+    static final MemberListRowIndex EMPTY = new MemberListRowIndex(new Row[0]);
+
+    /**
+     * A single text widget with its bounds and text info captured when the
+     * index was built.
+     */
+    static final class Cell
+    {
+        @Getter
+        private final Widget widget;
+
+        @Getter
+        private final Rectangle bounds;
+
+        @Getter
+        private final WidgetTextCache.TextInfo textInfo;
+
+        private Cell(Widget widget, Rectangle bounds, WidgetTextCache.TextInfo textInfo)
+        {
+            this.widget = widget;
+            this.bounds = bounds;
+            this.textInfo = textInfo;
+        }
+
+        // Tags stripped, see RankText.extractCleanText
+        String getText()
+        {
+            return textInfo.getClean();
+        }
+    }
+
+    private static final class Row
+    {
+        private final int minY;
+        private final int maxY;
+        // Sorted by bounds.x
+        private final Cell[] cells;
+        private final int[] xs;
+
+        private Row(List<Cell> cells)
+        {
+            this.cells = cells.toArray(new Cell[0]);
+            Arrays.sort(this.cells, Comparator.comparingInt(c -> c.bounds.x));
+
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            xs = new int[this.cells.length];
+            for (int i = 0; i < this.cells.length; i++)
+            {
+                int y = this.cells[i].bounds.y;
+                min = Math.min(min, y);
+                max = Math.max(max, y);
+                xs[i] = this.cells[i].bounds.x;
+            }
+            minY = min;
+            maxY = max;
+        }
+    }
+
+    // Sorted by minY; bands never overlap
+    private final Row[] rows;
+
+    private MemberListRowIndex(Row[] rows)
+    {
+        this.rows = rows;
+    }
+
+    static MemberListRowIndex build(Widget[] widgets, WidgetTextCache textCache)
+    {
+        List<Cell> cells = new ArrayList<>(widgets.length);
+        for (Widget w : widgets)
+        {
+            if (w == null)
+            {
+                continue;
+            }
+
+            String txt = w.getText();
+            if (txt == null || txt.isEmpty())
+            {
+                continue;
+            }
+
+            WidgetTextCache.TextInfo info = textCache.get(txt);
+            if (info.getClean().isEmpty())
+            {
+                continue;
+            }
+
+            Rectangle b = w.getBounds();
+            if (b == null)
+            {
+                continue;
+            }
+
+            cells.add(new Cell(w, b, info));
+        }
+
+        if (cells.isEmpty())
+        {
+            return EMPTY;
+        }
+
+        cells.sort(Comparator.comparingInt(c -> c.bounds.y));
+
+        List<Row> rows = new ArrayList<>();
+        List<Cell> band = new ArrayList<>();
+        int bandStartY = cells.get(0).bounds.y;
+        for (Cell cell : cells)
+        {
+            if (cell.bounds.y - bandStartY > ROW_Y_TOLERANCE)
+            {
+                rows.add(new Row(band));
+                band.clear();
+                bandStartY = cell.bounds.y;
+            }
+            band.add(cell);
+        }
+        rows.add(new Row(band));
+
+        return new MemberListRowIndex(rows.toArray(new Row[0]));
+    }
+
+    boolean isEmpty()
+    {
+        return rows.length == 0;
+    }
+
+    /**
+     * Finds the cell closest to the right edge of {@code anchorBounds} that
+     * is on the same row (within {@link #ROW_Y_TOLERANCE}) and accepted by
+     * {@code filter}.
+     *
+     * @param anchor widget to skip, usually the one {@code anchorBounds} belongs to
+     * @return the nearest accepted cell, or null if there is none
+     */
+    Cell findRightOf(Widget anchor, Rectangle anchorBounds, Predicate<Cell> filter)
+    {
+        final int y = anchorBounds.y;
+        final int rightX = anchorBounds.x + anchorBounds.width;
+
+        Cell best = null;
+        int bestDx = Integer.MAX_VALUE;
+
+        for (int r = firstRowReaching(y - ROW_Y_TOLERANCE); r < rows.length; r++)
+        {
+            Row row = rows[r];
+            if (row.minY > y + ROW_Y_TOLERANCE)
+            {
+                break;
+            }
+
+            for (int i = firstAtOrAfter(row.xs, rightX); i < row.cells.length; i++)
+            {
+                Cell cell = row.cells[i];
+                int dx = cell.bounds.x - rightX;
+                if (dx >= bestDx)
+                {
+                    break;
+                }
+
+                if (cell.widget == anchor || Math.abs(cell.bounds.y - y) > ROW_Y_TOLERANCE)
+                {
+                    continue;
+                }
+
+                if (filter.test(cell))
+                {
+                    best = cell;
+                    bestDx = dx;
+                    break;
+                }
+            }
+        }
+
+        return best;
+    }
+
+    // Index of the first row whose maxY is >= y
+    private int firstRowReaching(int y)
+    {
+        int lo = 0;
+        int hi = rows.length;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (rows[mid].maxY < y)
+            {
+                lo = mid + 1;
+            }
+            else
+            {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Index of the first element of the sorted array that is >= x
+    private static int firstAtOrAfter(int[] xs, int x)
+    {
+        int lo = 0;
+        int hi = xs.length;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (xs[mid] < x)
+            {
+                lo = mid + 1;
+            }
+            else
+            {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,218 @@
+package com.clanrankhelper;
+
+import net.runelite.api.widgets.Widget;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Cache of the text widgets in the clan settings member list.
+ *
+ * The widget tree is only walked again after the plugin sees the interface
+ * load, scroll or redraw (see {@link #invalidate()}), instead of on every
+ * frame. Scripts that don't redraw the list (hover, timers) also invalidate
+ * it, so the row and name cells are fingerprinted first and the walk is
+ * skipped if they didn't change. All access happens on the client thread.
+ */
+@Singleton
+class MemberListWidgets
+{
+    private final WidgetTextCache textCache;
+
+    static final int CLAN_SETTINGS_GROUP_ID = 693;
+
+    // Viewport/panel and name column (per your inspector)
+    static final int CLAN_MEMBER_PANEL_CHILD = 9;  // viewport
+    static final int CLAN_MEMBER_NAME_CHILD  = 10; // names live here
+
+    private boolean dirty = true;
+
+    // Cheap fingerprint checked every frame, in case a redraw slipped past
+    // the events we listen to
+    private int lastScrollY = -1;
+    private int lastNameChildCount = -1;
+    private int lastPanelX = Integer.MIN_VALUE;
+    private int lastPanelY = Integer.MIN_VALUE;
+
+    // Identity and text of the row and name cells, checked once invalidated
+    private int lastContents;
+
+    // Bumped every time the widgets are collected again
+    private int generation;
+
+    private MemberListRowIndex rowIndex = MemberListRowIndex.EMPTY;
+    private List<Widget> nameTextWidgets = Collections.emptyList();
+
+    @Inject
+    MemberListWidgets(WidgetTextCache textCache)
+    {
+        this.textCache = textCache;
+    }
+
+    /**
+     * Marks the cached widgets as stale; they are collected again on the next
+     * {@link #refresh} call.
+     */
+    void invalidate()
+    {
+        dirty = true;
+    }
+
+    void clear()
+    {
+        dirty = true;
+        lastScrollY = -1;
+        lastNameChildCount = -1;
+        lastPanelX = Integer.MIN_VALUE;
+        lastPanelY = Integer.MIN_VALUE;
+        lastContents = 0;
+        rowIndex = MemberListRowIndex.EMPTY;
+        nameTextWidgets = Collections.emptyList();
+    }
+
+    /**
+     * Re-collects the text widgets under the panel and name column if the
+     * cache is stale.
+     *
+     * @param viewport current bounds of {@code memberPanel}; the row index
+     *                 holds absolute bounds, so moving the panel invalidates it
+     * @return true if the widgets were collected again
+     */
+    boolean refresh(Widget memberPanel, Rectangle viewport, Widget nameColumn)
+    {
+        int scrollY = memberPanel.getScrollY();
+        Widget[] nameChildren = nameColumn.getChildren();
+        int nameChildCount = nameChildren == null ? 0 : nameChildren.length;
+
+        if (!dirty
+            && scrollY == lastScrollY
+            && nameChildCount == lastNameChildCount
+            && viewport.x == lastPanelX
+            && viewport.y == lastPanelY)
+        {
+            return false;
+        }
+
+        int contents = 31 * contentsOf(memberPanel.getChildren()) + contentsOf(nameChildren);
+        if (dirty
+            && lastNameChildCount != -1
+            && contents == lastContents
+            && scrollY == lastScrollY
+            && nameChildCount == lastNameChildCount
+            && viewport.x == lastPanelX
+            && viewport.y == lastPanelY)
+        {
+            // Invalidated, but nothing we index changed
+            dirty = false;
+            return false;
+        }
+
+        // All row text under panel (used for rank lookup)
+        List<Widget> rows = new ArrayList<>();
+        collectAllTextWidgets(memberPanel, rows, newSetIdentity());
+
+        // Only names from the name column
+        List<Widget> names = new ArrayList<>();
+        collectAllTextWidgets(nameColumn, names, newSetIdentity());
+
+        rowIndex = MemberListRowIndex.build(rows.toArray(new Widget[0]), textCache);
+        nameTextWidgets = Collections.unmodifiableList(names);
+        lastScrollY = scrollY;
+        lastNameChildCount = nameChildCount;
+        lastPanelX = viewport.x;
+        lastPanelY = viewport.y;
+        lastContents = contents;
+        dirty = false;
+        generation++;
+        return true;
+    }
+
+    int getGeneration()
+    {
+        return generation;
+    }
+
+    MemberListRowIndex getRowIndex()
+    {
+        return rowIndex;
+    }
+
+    List<Widget> getNameTextWidgets()
+    {
+        return nameTextWidgets;
+    }
+
+    // Cheap enough for every invalidation: no walk, no allocation
+    private static int contentsOf(Widget[] cells)
+    {
+        if (cells == null)
+        {
+            return 0;
+        }
+
+        int hash = 1;
+        for (Widget cell : cells)
+        {
+            hash = 31 * hash + System.identityHashCode(cell);
+            hash = 31 * hash + (cell != null ? Objects.hashCode(cell.getText()) : 0);
+        }
+        return hash;
+    }
+
+    // -----------------------
+    // Widget collection
+    // -----------------------
+    private Set<Widget> newSetIdentity()
+    {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    private void collectAllTextWidgets(Widget root, List<Widget> out, Set<Widget> visited)
+    {
+        if (root == null || visited.contains(root))
+        {
+            return;
+        }
+        visited.add(root);
+
+        String t = root.getText();
+        if (t != null && !t.isEmpty())
+        {
+            out.add(root);
+        }
+
+        Widget[] dyn = root.getDynamicChildren();
+        if (dyn != null)
+        {
+            for (Widget c : dyn)
+            {
+                collectAllTextWidgets(c, out, visited);
+            }
+        }
+
+        Widget[] stat = root.getStaticChildren();
+        if (stat != null)
+        {
+            for (Widget c : stat)
+            {
+                collectAllTextWidgets(c, out, visited);
+            }
+        }
+
+        Widget[] nested = root.getNestedChildren();
+        if (nested != null)
+        {
+            for (Widget c : nested)
+            {
+                collectAllTextWidgets(c, out, visited);
+            }
+        }
+    }
+}
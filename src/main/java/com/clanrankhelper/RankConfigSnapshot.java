@@ -0,0 +1,146 @@
+package com.clanrankhelper;
+
+import java.awt.Color;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parsed form of the ignore lists and rank colours in
+ * {@link ClanRankHelperConfig}.
+ *
+ * Built once per config change by the plugin and shared by both overlays,
+ * so lookups are plain hash probes instead of re-splitting the config
+ * strings and decoding colours on every call. Instances are immutable.
+ */
+final class RankConfigSnapshot
+{
+    private final Set<String> ignoredPlayers;
+    private final Set<String> ignoredRanks;
+    private final Set<String> ignoredTargetRanks;
+    private final Map<String, Color> rankColors;
+    private final Color defaultColor;
+
+    private RankConfigSnapshot(Set<String> ignoredPlayers, Set<String> ignoredRanks, Set<String> ignoredTargetRanks,
+                               Map<String, Color> rankColors, Color defaultColor)
+    {
+        this.ignoredPlayers = ignoredPlayers;
+        this.ignoredRanks = ignoredRanks;
+        this.ignoredTargetRanks = ignoredTargetRanks;
+        this.rankColors = rankColors;
+        this.defaultColor = defaultColor;
+    }
+
+    static RankConfigSnapshot from(ClanRankHelperConfig config)
+    {
+        Set<String> ignoredPlayers = new HashSet<>();
+        for (String player : splitList(config.ignoredPlayers()))
+        {
+            String n = RankText.normalizeName(player);
+            if (!n.isEmpty())
+            {
+                ignoredPlayers.add(n);
+            }
+        }
+
+        Set<String> ignoredRanks = new HashSet<>();
+        for (String rank : splitList(config.ignoredRanks()))
+        {
+            ignoredRanks.add(rankKey(rank));
+        }
+
+        Set<String> ignoredTargetRanks = new HashSet<>();
+        for (String rank : splitList(config.ignoredTargetRanks()))
+        {
+            ignoredTargetRanks.add(rankKey(rank));
+        }
+
+        // Custom colours win over the built-in ones
+        Map<String, Color> rankColors = new HashMap<>();
+        String customColors = config.customRankColors();
+        if (customColors != null && !customColors.trim().isEmpty())
+        {
+            for (String pair : customColors.split(","))
+            {
+                String[] parts = pair.split(":");
+                if (parts.length != 2)
+                {
+                    continue;
+                }
+
+                try
+                {
+                    rankColors.putIfAbsent(rankKey(parts[0]), Color.decode(parts[1].trim()));
+                }
+                catch (NumberFormatException e)
+                {
+                    // Invalid hex, skip
+                }
+            }
+        }
+
+        rankColors.putIfAbsent("recruit", config.recruitColor());
+        rankColors.putIfAbsent("corporal", config.corporalColor());
+        rankColors.putIfAbsent("sergeant", config.sergeantColor());
+        rankColors.putIfAbsent("cadet", config.cadetColor());
+        rankColors.putIfAbsent("lieutenant", config.lieutenantColor());
+        rankColors.putIfAbsent("captain", config.captainColor());
+        rankColors.putIfAbsent("veteran", config.veteranColor());
+        rankColors.putIfAbsent("general", config.generalColor());
+        rankColors.putIfAbsent("master", config.masterColor());
+
+        return new RankConfigSnapshot(
+            Collections.unmodifiableSet(ignoredPlayers),
+            Collections.unmodifiableSet(ignoredRanks),
+            Collections.unmodifiableSet(ignoredTargetRanks),
+            Collections.unmodifiableMap(rankColors),
+            config.highlightColor()
+        );
+    }
+
+    /**
+     * @param normalizedName player name as returned by {@link RankText#normalizeName}
+     */
+    boolean isPlayerIgnored(String normalizedName)
+    {
+        return ignoredPlayers.contains(normalizedName);
+    }
+
+    boolean isRankIgnored(String rank)
+    {
+        return !ignoredRanks.isEmpty() && ignoredRanks.contains(rankKey(rank));
+    }
+
+    boolean isTargetRankIgnored(String rank)
+    {
+        return !ignoredTargetRanks.isEmpty() && ignoredTargetRanks.contains(rankKey(rank));
+    }
+
+    /**
+     * Colour for a target rank: the custom colour if one is configured,
+     * then the built-in rank colour, then the default highlight colour.
+     */
+    Color getRankColor(String rank)
+    {
+        Color color = rankColors.get(rankKey(rank));
+        return color != null ? color : defaultColor;
+    }
+
+    private static String rankKey(String rank)
+    {
+        return rank.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Split by comma, newline, or both
+    private static String[] splitList(String value)
+    {
+        if (value == null || value.trim().isEmpty())
+        {
+            return new String[0];
+        }
+        return value.split("[,\\n\\r]+");
+    }
+}
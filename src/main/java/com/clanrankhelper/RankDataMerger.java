@@ -0,0 +1,135 @@
+package com.clanrankhelper;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges the rank maps of several sources into one.
+ *
+ * Players are matched by {@link RankText#normalizeName}, so "Foo Bar" in
+ * one source and "foo_bar" in another count as the same player. When two
+ * sources disagree on the target rank, the one with precedence is kept and
+ * the disagreement is reported as a {@link Conflict}.
+ */
+final class RankDataMerger
+{
+    private RankDataMerger()
+    {
+    }
+
+    static final class Conflict
+    {
+        @Getter
+        private final String player;
+
+        @Getter
+        private final String keptRank;
+
+        @Getter
+        private final String keptSource;
+
+        @Getter
+        private final String ignoredRank;
+
+        @Getter
+        private final String ignoredSource;
+
+        Conflict(String player, String keptRank, String keptSource, String ignoredRank, String ignoredSource)
+        {
+            this.player = player;
+            this.keptRank = keptRank;
+            this.keptSource = keptSource;
+            this.ignoredRank = ignoredRank;
+            this.ignoredSource = ignoredSource;
+        }
+
+        @Override
+        public String toString()
+        {
+            return player + ": kept " + keptRank + " from " + keptSource
+                + ", ignored " + ignoredRank + " from " + ignoredSource;
+        }
+    }
+
+    static final class Result
+    {
+        @Getter
+        private final Map<String, String> ranks;
+
+        @Getter
+        private final List<Conflict> conflicts;
+
+        Result(Map<String, String> ranks, List<Conflict> conflicts)
+        {
+            this.ranks = ranks;
+            this.conflicts = conflicts;
+        }
+    }
+
+    /**
+     * @param sources    source URL -> its lowercased player name -> target rank
+     *                   map, in configured order
+     * @param precedence which end of the order wins a conflict
+     */
+    static Result merge(Map<String, Map<String, String>> sources, SourcePrecedence precedence)
+    {
+        List<Map.Entry<String, Map<String, String>>> ordered = new ArrayList<>(sources.entrySet());
+        if (precedence == SourcePrecedence.LAST_WINS)
+        {
+            Collections.reverse(ordered);
+        }
+
+        // Single source: nothing to merge
+        if (ordered.size() == 1)
+        {
+            return new Result(ordered.get(0).getValue(), Collections.emptyList());
+        }
+
+        int capacity = 0;
+        for (Map.Entry<String, Map<String, String>> source : ordered)
+        {
+            capacity += source.getValue().size();
+        }
+
+        Map<String, String> merged = new HashMap<>(capacity * 2);
+        // normalized name -> {key in merged, source it came from}
+        Map<String, String[]> owners = new HashMap<>(capacity * 2);
+        List<Conflict> conflicts = new ArrayList<>();
+
+        // Highest precedence first, later sources only fill gaps
+        for (Map.Entry<String, Map<String, String>> source : ordered)
+        {
+            for (Map.Entry<String, String> entry : source.getValue().entrySet())
+            {
+                String normalized = RankText.normalizeName(entry.getKey());
+                String[] owner = owners.get(normalized);
+                if (owner == null)
+                {
+                    owners.put(normalized, new String[]{entry.getKey(), source.getKey()});
+                    merged.put(entry.getKey(), entry.getValue());
+                    continue;
+                }
+
+                // Two spellings of one name in the same source aren't a
+                // conflict between sources; the first one read is kept
+                if (owner[1].equals(source.getKey()))
+                {
+                    continue;
+                }
+
+                String kept = merged.get(owner[0]);
+                if (!kept.equalsIgnoreCase(entry.getValue()))
+                {
+                    conflicts.add(new Conflict(owner[0], kept, owner[1], entry.getValue(), source.getKey()));
+                }
+            }
+        }
+
+        return new Result(merged, conflicts);
+    }
+}
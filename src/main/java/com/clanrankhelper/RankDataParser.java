@@ -0,0 +1,313 @@
+package com.clanrankhelper;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parsers turning downloaded rank data (API JSON or a Sheets CSV export)
+ * into a player name to target rank map. They read straight from the
+ * response stream, so only the resulting map is ever held in memory,
+ * however large the payload is.
+ */
+final class RankDataParser
+{
+    private RankDataParser()
+    {
+    }
+
+    /**
+     * Reads the API format, a JSON array of
+     * {@code {"mainRSN": "PlayerName", "osrsName": "TargetRank"}} objects.
+     * Unknown fields are skipped.
+     *
+     * @return lowercased player name -> target rank
+     */
+    static Map<String, String> readApiEntries(JsonReader reader) throws IOException
+    {
+        Map<String, String> rankMap = new HashMap<>();
+
+        reader.beginArray();
+        while (reader.hasNext())
+        {
+            if (reader.peek() == JsonToken.NULL)
+            {
+                reader.nextNull();
+                continue;
+            }
+
+            String mainRSN = null;
+            String osrsName = null;
+
+            reader.beginObject();
+            while (reader.hasNext())
+            {
+                switch (reader.nextName())
+                {
+                    case "mainRSN":
+                        mainRSN = nextStringOrNull(reader);
+                        break;
+                    case "osrsName":
+                        osrsName = nextStringOrNull(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+
+            if (mainRSN != null && !mainRSN.isEmpty() && osrsName != null)
+            {
+                rankMap.put(mainRSN.toLowerCase().trim(), osrsName);
+            }
+        }
+        reader.endArray();
+
+        return rankMap;
+    }
+
+    /**
+     * What the API sent: either every entry, or the changes since the cursor
+     * we sent in {@code since}.
+     */
+    static final class ApiResponse
+    {
+        // Every entry, null for a delta
+        @Getter
+        private final Map<String, String> entries;
+
+        @Getter
+        private final Map<String, String> upserts;
+
+        // Lowercased player names
+        @Getter
+        private final Set<String> removals;
+
+        // Where the next delta should start, null if the API has no deltas
+        @Getter
+        private final String cursor;
+
+        private ApiResponse(Map<String, String> entries, Map<String, String> upserts, Set<String> removals,
+                            String cursor)
+        {
+            this.entries = entries;
+            this.upserts = upserts;
+            this.removals = removals;
+            this.cursor = cursor;
+        }
+
+        boolean isDelta()
+        {
+            return entries == null;
+        }
+
+        /**
+         * The entries after applying this delta to {@code base}. Names are
+         * matched by {@link RankText#normalizeName}, like everywhere else.
+         */
+        Map<String, String> applyTo(Map<String, String> base)
+        {
+            Map<String, String> result = new HashMap<>(base);
+            if (upserts.isEmpty() && removals.isEmpty())
+            {
+                return result;
+            }
+
+            Map<String, String> keyByNormalized = new HashMap<>(result.size() * 2);
+            for (String key : result.keySet())
+            {
+                keyByNormalized.put(RankText.normalizeName(key), key);
+            }
+
+            for (String name : removals)
+            {
+                String key = keyByNormalized.remove(RankText.normalizeName(name));
+                if (key != null)
+                {
+                    result.remove(key);
+                }
+            }
+
+            for (Map.Entry<String, String> upsert : upserts.entrySet())
+            {
+                String previousKey = keyByNormalized.put(RankText.normalizeName(upsert.getKey()), upsert.getKey());
+                if (previousKey != null && !previousKey.equals(upsert.getKey()))
+                {
+                    result.remove(previousKey);
+                }
+                result.put(upsert.getKey(), upsert.getValue());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Reads any of the API response formats: the plain entry array, a full
+     * snapshot {@code {"cursor": ..., "entries": [...]}} or a delta
+     * {@code {"cursor": ..., "upserts": [...], "removals": ["PlayerName"]}}.
+     * Entries use the {@link #readApiEntries} format. Any other object,
+     * e.g. an error message served with a 200, is rejected.
+     */
+    static ApiResponse readApiResponse(JsonReader reader) throws IOException
+    {
+        if (reader.peek() == JsonToken.BEGIN_ARRAY)
+        {
+            return new ApiResponse(readApiEntries(reader), null, null, null);
+        }
+
+        String cursor = null;
+        Map<String, String> entries = null;
+        Map<String, String> upserts = Collections.emptyMap();
+        Set<String> removals = Collections.emptySet();
+        boolean recognized = false;
+
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL)
+            {
+                reader.nextNull();
+                continue;
+            }
+
+            switch (name)
+            {
+                case "cursor":
+                    cursor = reader.nextString();
+                    break;
+                case "entries":
+                    entries = readApiEntries(reader);
+                    recognized = true;
+                    break;
+                case "upserts":
+                    upserts = readApiEntries(reader);
+                    recognized = true;
+                    break;
+                case "removals":
+                    removals = readNames(reader);
+                    recognized = true;
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (!recognized)
+        {
+            throw new IOException("Unrecognized API response, expected entries, upserts or removals");
+        }
+        if (entries != null)
+        {
+            return new ApiResponse(entries, null, null, cursor);
+        }
+        return new ApiResponse(null, upserts, removals, cursor);
+    }
+
+    private static Set<String> readNames(JsonReader reader) throws IOException
+    {
+        Set<String> names = new HashSet<>();
+        reader.beginArray();
+        while (reader.hasNext())
+        {
+            String name = nextStringOrNull(reader);
+            if (name != null && !name.isEmpty())
+            {
+                names.add(name.toLowerCase().trim());
+            }
+        }
+        reader.endArray();
+        return names;
+    }
+
+    /**
+     * Reads a CSV export of a sheet, taking the RSN and target rank from the
+     * given columns.
+     *
+     * @param rsnIdx     0-based column holding the player name
+     * @param rankIdx    0-based column holding the target rank
+     * @param skipHeader skip the first row no matter what; otherwise it is
+     *                   only skipped if it looks like a header
+     * @return lowercased player name -> target rank
+     */
+    static Map<String, String> readSheet(Reader in, int rsnIdx, int rankIdx, boolean skipHeader) throws IOException
+    {
+        Map<String, String> rankMap = new HashMap<>();
+        int[] columns = {rsnIdx, rankIdx};
+        String[] cells = new String[2];
+        boolean firstRow = true;
+
+        CsvReader csv = new CsvReader(in);
+        while (csv.readRecord(columns, cells) >= 0)
+        {
+            String rsn = cells[0];
+            String rank = cells[1];
+
+            if (firstRow)
+            {
+                firstRow = false;
+
+                // If user says header exists, skip it no matter what
+                if (skipHeader)
+                {
+                    continue;
+                }
+
+                // Otherwise, keep the old "looks like header" heuristic, applied to the two cells we read
+                if (looksLikeHeader(rsn) || looksLikeHeader(rank))
+                {
+                    continue;
+                }
+            }
+
+            // Need enough columns to read both indices
+            if (rsn == null || rank == null)
+            {
+                continue;
+            }
+
+            rsn = rsn.trim();
+            rank = rank.trim();
+
+            if (!rsn.isEmpty() && !rank.isEmpty())
+            {
+                // Keep your existing behavior: normalize key for matching
+                rankMap.put(rsn.toLowerCase(), rank);
+            }
+        }
+
+        return rankMap;
+    }
+
+    private static boolean looksLikeHeader(String cell)
+    {
+        if (cell == null)
+        {
+            return false;
+        }
+
+        String lower = cell.toLowerCase();
+        return lower.contains("rsn") || lower.contains("name") || lower.contains("rank");
+    }
+
+    private static String nextStringOrNull(JsonReader reader) throws IOException
+    {
+        if (reader.peek() == JsonToken.NULL)
+        {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+}
@@ -0,0 +1,90 @@
+package com.clanrankhelper;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * One refresh worth of rank data: player name to target rank.
+ *
+ * Instances are immutable and published by the plugin through a single
+ * reference, so readers always see a complete dataset, never a half-updated
+ * one.
+ */
+final class RankDataset
+{
+    static final RankDataset EMPTY = new RankDataset(Collections.emptyMap(), Collections.emptyMap());
+
+    // Lowercased player name as fetched -> target rank
+    @Getter
+    private final Map<String, String> ranks;
+
+    // Same data keyed by RankText.normalizeName, so the member list can
+    // resolve a row with a single lookup
+    @Getter
+    private final Map<String, String> ranksByNormalizedName;
+
+    private RankDataset(Map<String, String> ranks, Map<String, String> ranksByNormalizedName)
+    {
+        this.ranks = ranks;
+        this.ranksByNormalizedName = ranksByNormalizedName;
+    }
+
+    static RankDataset of(Map<String, String> ranks)
+    {
+        if (ranks.isEmpty())
+        {
+            return EMPTY;
+        }
+
+        Map<String, String> normalized = new HashMap<>(ranks.size() * 2);
+        for (Map.Entry<String, String> entry : ranks.entrySet())
+        {
+            normalized.put(RankText.normalizeName(entry.getKey()), entry.getValue());
+        }
+
+        return new RankDataset(
+            Collections.unmodifiableMap(new HashMap<>(ranks)),
+            Collections.unmodifiableMap(normalized)
+        );
+    }
+
+    boolean isEmpty()
+    {
+        return ranks.isEmpty();
+    }
+
+    int size()
+    {
+        return ranks.size();
+    }
+
+    /**
+     * Normalized names of the players that were added, removed or given a
+     * different target rank compared to {@code previous}.
+     */
+    Set<String> changedPlayers(RankDataset previous)
+    {
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, String> entry : ranksByNormalizedName.entrySet())
+        {
+            if (!Objects.equals(entry.getValue(), previous.ranksByNormalizedName.get(entry.getKey())))
+            {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String name : previous.ranksByNormalizedName.keySet())
+        {
+            if (!ranksByNormalizedName.containsKey(name))
+            {
+                changed.add(name);
+            }
+        }
+        return changed;
+    }
+}
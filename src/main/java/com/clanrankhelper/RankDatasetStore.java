@@ -0,0 +1,184 @@
+package com.clanrankhelper;
+
+import com.google.gson.Gson;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the last applied rank data on disk, so the overlays have something
+ * to show right after startup and while the source is unreachable.
+ *
+ * The file is gzipped JSON holding the ranks of each source together with
+ * its URL and validators, so the first refresh after startup can be a
+ * conditional request.
+ */
+@Slf4j
+@Singleton
+class RankDatasetStore
+{
+    private static final File CACHE_DIR = new File(RuneLite.RUNELITE_DIR, "clan-rank-helper");
+    private static final File CACHE_FILE = new File(CACHE_DIR, "dataset.json.gz");
+
+    private final Gson gson;
+
+    @Inject
+    RankDatasetStore(Gson gson)
+    {
+        this.gson = gson;
+    }
+
+    /**
+     * The cached sources, empty if there are none or the file can't be read.
+     */
+    List<Entry> load()
+    {
+        if (!CACHE_FILE.isFile())
+        {
+            return Collections.emptyList();
+        }
+
+        try (Reader reader = new InputStreamReader(
+            new GZIPInputStream(new FileInputStream(CACHE_FILE)), StandardCharsets.UTF_8))
+        {
+            CacheFile file = gson.fromJson(reader, CacheFile.class);
+            if (file == null || file.sources == null)
+            {
+                return Collections.emptyList();
+            }
+
+            List<Entry> entries = new ArrayList<>(file.sources.size());
+            for (Entry entry : file.sources)
+            {
+                if (entry != null && entry.url != null && entry.parseKey != null && entry.ranks != null)
+                {
+                    entries.add(entry);
+                }
+            }
+            return entries;
+        }
+        catch (Exception e)
+        {
+            log.warn("Clan Rank Helper: Unable to read cached rank data", e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Replaces the cached dataset. Written to a temporary file first so a
+     * crash mid-write never leaves a truncated cache behind.
+     */
+    void save(Collection<RankSourceState> states)
+    {
+        CacheFile file = new CacheFile();
+        file.sources = new ArrayList<>(states.size());
+        for (RankSourceState state : states)
+        {
+            if (state.getRanks() == null)
+            {
+                continue;
+            }
+
+            Entry entry = new Entry();
+            entry.url = state.getUrl();
+            entry.parseKey = state.getParseKey();
+            entry.etag = state.getEtag();
+            entry.lastModified = state.getLastModified();
+            entry.contentHash = state.getContentHash();
+            entry.fetchedAt = state.getFetchedAt();
+            entry.ranks = state.getRanks();
+            entry.cursor = state.getCursor();
+            file.sources.add(entry);
+        }
+
+        File tmp = new File(CACHE_DIR, CACHE_FILE.getName() + ".tmp");
+        try
+        {
+            Files.createDirectories(CACHE_DIR.toPath());
+            try (Writer writer = new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(tmp)), StandardCharsets.UTF_8))
+            {
+                gson.toJson(file, writer);
+            }
+
+            try
+            {
+                Files.move(tmp.toPath(), CACHE_FILE.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(tmp.toPath(), CACHE_FILE.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        catch (IOException e)
+        {
+            log.warn("Clan Rank Helper: Unable to write cached rank data", e);
+        }
+    }
+
+    private static class CacheFile
+    {
+        private List<Entry> sources;
+    }
+
+    static class Entry
+    {
+        @Getter
+        private String url;
+
+        @Getter
+        private String parseKey;
+
+        @Getter
+        private String etag;
+
+        @Getter
+        private String lastModified;
+
+        @Getter
+        private String contentHash;
+
+        // Epoch millis of the download the ranks came from
+        @Getter
+        private long fetchedAt;
+
+        @Getter
+        private Map<String, String> ranks;
+
+        @Getter
+        private String cursor;
+
+        boolean matches(RankSource source)
+        {
+            return url.equals(source.getUrl()) && parseKey.equals(source.getParseKey());
+        }
+
+        RankSourceState toSourceState()
+        {
+            return new RankSourceState(url, parseKey, etag, lastModified, contentHash, fetchedAt, ranks, cursor);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.clanrankhelper;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.HttpUrl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where the rank data comes from and how it is parsed, resolved from the
+ * config.
+ */
+@Slf4j
+final class RankSource
+{
+    // Sheet ids are long; this much tells a clan's sheets apart in logs
+    private static final int SHORT_SHEET_ID = 8;
+
+    enum Type
+    {
+        GOOGLE_SHEETS,
+        API
+    }
+
+    @Getter
+    private final Type type;
+
+    // The URL actually requested, e.g. the CSV export of a sheet
+    @Getter
+    private final String url;
+
+    // Sheets only, 0-based
+    @Getter
+    private final int rsnIndex;
+
+    @Getter
+    private final int rankIndex;
+
+    @Getter
+    private final boolean skipHeader;
+
+    // API only, ask for changes since the last sync instead of everything
+    @Getter
+    private final boolean deltaSync;
+
+    // For log messages and fetch stats, e.g. "API example.com/ranks"
+    @Getter
+    private final String label;
+
+    private RankSource(Type type, String url, int rsnIndex, int rankIndex, boolean skipHeader, boolean deltaSync)
+    {
+        this.type = type;
+        this.url = url;
+        this.rsnIndex = rsnIndex;
+        this.rankIndex = rankIndex;
+        this.skipHeader = skipHeader;
+        this.deltaSync = deltaSync;
+        this.label = label(type, url);
+    }
+
+    static RankSource api(String url, boolean deltaSync)
+    {
+        return new RankSource(Type.API, url, 0, 0, false, deltaSync);
+    }
+
+    static RankSource googleSheets(String csvUrl, int rsnIndex, int rankIndex, boolean skipHeader)
+    {
+        return new RankSource(Type.GOOGLE_SHEETS, csvUrl, rsnIndex, rankIndex, skipHeader, false);
+    }
+
+    /**
+     * Every configured source in precedence order: the main source first,
+     * then the additional ones as listed. A URL listed twice is used once,
+     * one that isn't http(s) is skipped.
+     */
+    static List<RankSource> allFromConfig(ClanRankHelperConfig config)
+    {
+        Map<String, RankSource> sources = new LinkedHashMap<>();
+
+        RankSource main = fromConfig(config);
+        if (main != null && isFetchable(main))
+        {
+            sources.put(main.getUrl(), main);
+        }
+
+        String additional = config.additionalSources();
+        if (additional != null)
+        {
+            for (String line : additional.split("\\R"))
+            {
+                RankSource source = fromUrl(line.trim(), config);
+                if (source != null && isFetchable(source))
+                {
+                    sources.putIfAbsent(source.getUrl(), source);
+                }
+            }
+        }
+
+        return new ArrayList<>(sources.values());
+    }
+
+    /**
+     * The main configured source, Google Sheets taking priority over the API,
+     * or null if neither is set up.
+     */
+    static RankSource fromConfig(ClanRankHelperConfig config)
+    {
+        String sheetsUrl = config.googleSheetsUrl();
+        if (sheetsUrl != null && !sheetsUrl.trim().isEmpty())
+        {
+            return fromSheetsUrl(sheetsUrl.trim(), config);
+        }
+
+        String apiUrl = config.apiUrl();
+        if (apiUrl != null && !apiUrl.trim().isEmpty())
+        {
+            return api(apiUrl.trim(), config.apiDeltaSync());
+        }
+
+        return null;
+    }
+
+    // An additional source: a Sheets link if it looks like one, else an API
+    private static RankSource fromUrl(String url, ClanRankHelperConfig config)
+    {
+        if (url.isEmpty())
+        {
+            return null;
+        }
+
+        return url.contains("/spreadsheets/d/") ? fromSheetsUrl(url, config) : api(url, config.apiDeltaSync());
+    }
+
+    private static RankSource fromSheetsUrl(String sheetsUrl, ClanRankHelperConfig config)
+    {
+        String csvUrl = convertToCsvUrl(sheetsUrl);
+        if (csvUrl == null)
+        {
+            log.error("Clan Rank Helper: Invalid Google Sheets URL format");
+            return null;
+        }
+
+        return googleSheets(csvUrl,
+            Math.max(0, config.sheetsRsnColumn() - 1),
+            Math.max(0, config.sheetsRankColumn() - 1),
+            config.sheetsHasHeader());
+    }
+
+    // OkHttp only takes http(s) URLs and throws on anything else
+    private static boolean isFetchable(RankSource source)
+    {
+        if (HttpUrl.parse(source.getUrl()) == null)
+        {
+            log.warn("Clan Rank Helper: Skipping invalid source URL: {}", source.getUrl());
+            return false;
+        }
+        return true;
+    }
+
+    // The host and path for an API, the sheet id and tab for a sheet
+    private static String label(Type type, String url)
+    {
+        HttpUrl parsed = HttpUrl.parse(url);
+        if (type == Type.API)
+        {
+            if (parsed == null)
+            {
+                return "API";
+            }
+            String path = parsed.encodedPath();
+            return "API " + parsed.host() + (path.equals("/") ? "" : path);
+        }
+
+        List<String> segments = parsed != null ? parsed.pathSegments() : Collections.emptyList();
+        int id = segments.indexOf("d") + 1;
+        if (id == 0 || id >= segments.size())
+        {
+            return "Google Sheets";
+        }
+
+        String sheetId = segments.get(id);
+        String gid = parsed.queryParameter("gid");
+        return "Google Sheets " + (sheetId.length() > SHORT_SHEET_ID ? sheetId.substring(0, SHORT_SHEET_ID) : sheetId)
+            + (gid != null ? " gid " + gid : "");
+    }
+
+    /**
+     * Anything besides the body that affects parsing; data cached under a
+     * different key doesn't apply.
+     */
+    String getParseKey()
+    {
+        if (type == Type.API)
+        {
+            return deltaSync ? "json-delta" : "json";
+        }
+        return rsnIndex + ":" + rankIndex + ":" + skipHeader;
+    }
+
+    static String convertToCsvUrl(String sheetsUrl)
+    {
+        // Handle various Google Sheets URL formats
+        try
+        {
+            if (sheetsUrl.contains("/spreadsheets/d/"))
+            {
+                int startIdx = sheetsUrl.indexOf("/spreadsheets/d/") + 16;
+                int endIdx = sheetsUrl.indexOf("/", startIdx);
+                if (endIdx == -1)
+                {
+                    endIdx = sheetsUrl.indexOf("?", startIdx);
+                }
+                if (endIdx == -1)
+                {
+                    endIdx = sheetsUrl.length();
+                }
+
+                String sheetId = sheetsUrl.substring(startIdx, endIdx);
+
+                // Check if there's a gid parameter for specific sheet
+                String gid = "";
+                if (sheetsUrl.contains("gid="))
+                {
+                    int gidStart = sheetsUrl.indexOf("gid=") + 4;
+                    int gidEnd = sheetsUrl.indexOf("&", gidStart);
+                    if (gidEnd == -1) gidEnd = sheetsUrl.length();
+                    gid = "&gid=" + sheetsUrl.substring(gidStart, gidEnd);
+                }
+
+                return "https://docs.google.com/spreadsheets/d/" + sheetId + "/export?format=csv" + gid;
+            }
+        }
+        catch (Exception e)
+        {
+            log.error("Clan Rank Helper: Error parsing Google Sheets URL", e);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,151 @@
+package com.clanrankhelper;
+
+import lombok.Getter;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * What we know about the last successful download from one source, used
+ * to skip refreshes whose data hasn't changed.
+ *
+ * The validators are sent back as {@code If-None-Match} and
+ * {@code If-Modified-Since} so the server can answer 304, and the content
+ * hash catches servers that don't support conditional requests. The parsed
+ * ranks are kept too, so an unchanged source can still take part in a
+ * merge with the others.
+ */
+class RankSourceState
+{
+    @Getter
+    private final String url;
+
+    // Anything besides the body that affects parsing (e.g. the sheet
+    // columns); a different key means the cached state doesn't apply
+    @Getter
+    private final String parseKey;
+
+    @Getter
+    private volatile String etag;
+
+    @Getter
+    private volatile String lastModified;
+
+    @Getter
+    private volatile String contentHash;
+
+    // Epoch millis of the last applied download
+    @Getter
+    private volatile long fetchedAt;
+
+    // Lowercased player name -> target rank from the last applied download
+    @Getter
+    private volatile Map<String, String> ranks;
+
+    // Delta sync position the API gave us with those ranks
+    @Getter
+    private volatile String cursor;
+
+    RankSourceState(String url, String parseKey)
+    {
+        this.url = url;
+        this.parseKey = parseKey;
+    }
+
+    /**
+     * State restored from a previous session, see {@link RankDatasetStore}.
+     */
+    RankSourceState(String url, String parseKey, String etag, String lastModified, String contentHash,
+                    long fetchedAt, Map<String, String> ranks, String cursor)
+    {
+        this.url = url;
+        this.parseKey = parseKey;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.contentHash = contentHash;
+        this.fetchedAt = fetchedAt;
+        this.ranks = ranks;
+        this.cursor = cursor;
+    }
+
+    boolean matches(String url, String parseKey)
+    {
+        return this.url.equals(url) && this.parseKey.equals(parseKey);
+    }
+
+    void addConditionalHeaders(Request.Builder builder)
+    {
+        // Validators are only useful once we have applied the data they describe
+        if (contentHash == null)
+        {
+            return;
+        }
+
+        if (etag != null)
+        {
+            builder.header("If-None-Match", etag);
+        }
+        if (lastModified != null)
+        {
+            builder.header("If-Modified-Since", lastModified);
+        }
+    }
+
+    boolean isUnchanged(String hash)
+    {
+        return Objects.equals(contentHash, hash);
+    }
+
+    /**
+     * Records the validators, content hash, parsed ranks and delta cursor of
+     * a response whose data was applied.
+     */
+    void recordApplied(Response response, String hash, Map<String, String> ranks, String cursor)
+    {
+        etag = response.header("ETag");
+        lastModified = response.header("Last-Modified");
+        contentHash = hash;
+        fetchedAt = System.currentTimeMillis();
+        this.ranks = ranks;
+        this.cursor = cursor;
+    }
+
+    /**
+     * Forgets the delta cursor and validators so the next request fetches a
+     * full snapshot. The ranks are kept until that snapshot arrives.
+     */
+    void resetCursor()
+    {
+        cursor = null;
+        etag = null;
+        lastModified = null;
+        contentHash = null;
+    }
+
+    /**
+     * Digest for hashing a body while it is streamed, see
+     * {@link java.security.DigestInputStream}.
+     */
+    static MessageDigest newDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // Every JVM ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String encodeHash(byte[] digest)
+    {
+        return Base64.getEncoder().encodeToString(digest);
+    }
+}
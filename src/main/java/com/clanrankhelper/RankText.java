@@ -0,0 +1,227 @@
+package com.clanrankhelper;
+
+/**
+ * Text helpers shared by the overlays and the plugin for cleaning up widget
+ * text and turning player names into lookup keys.
+ *
+ * These run for every member-list widget, so they scan the text once by
+ * hand instead of going through regexes, and return the input unchanged
+ * when there is nothing to strip.
+ */
+final class RankText
+{
+    // Longest label we still consider a rank (tune if your ranks are long)
+    private static final int MAX_RANK_LENGTH = 20;
+
+    private RankText()
+    {
+    }
+
+    /**
+     * Strips {@code <col=..>}, {@code </col>} and {@code <img=..>} tags from
+     * widget text and trims the result.
+     */
+    static String extractCleanText(String widgetText)
+    {
+        if (widgetText == null)
+        {
+            return null;
+        }
+
+        int len = widgetText.length();
+        int tag = firstStrippedTag(widgetText, 0);
+        if (tag < 0)
+        {
+            return widgetText.trim();
+        }
+
+        StringBuilder sb = new StringBuilder(len);
+        int i = 0;
+        while (tag >= 0)
+        {
+            sb.append(widgetText, i, tag);
+            i = widgetText.indexOf('>', tag) + 1;
+            tag = firstStrippedTag(widgetText, i);
+        }
+        sb.append(widgetText, i, len);
+
+        return sb.toString().trim();
+    }
+
+    /**
+     * Lookup key for a player name: tags stripped, lowercased, and with
+     * whitespace (including the non-breaking spaces the client uses in
+     * names), dashes and underscores removed.
+     */
+    static String normalizeName(String name)
+    {
+        if (name == null)
+        {
+            return "";
+        }
+
+        int len = name.length();
+        StringBuilder sb = null;
+        int tag = firstStrippedTag(name, 0);
+        int i = 0;
+        while (i < len)
+        {
+            if (i == tag)
+            {
+                // Tags are only dropped, so start a copy from here on
+                if (sb == null)
+                {
+                    sb = new StringBuilder(len);
+                    appendNormalized(sb, name, 0, i);
+                }
+                i = name.indexOf('>', i) + 1;
+                tag = firstStrippedTag(name, i);
+                continue;
+            }
+
+            char c = name.charAt(i);
+            if (sb == null && (isNameSeparator(c) || Character.toLowerCase(c) != c))
+            {
+                sb = new StringBuilder(len);
+                appendNormalized(sb, name, 0, i);
+            }
+            if (sb != null && !isNameSeparator(c))
+            {
+                sb.append(Character.toLowerCase(c));
+            }
+            i++;
+        }
+
+        return sb == null ? name : sb.toString();
+    }
+
+    /**
+     * Whether cleaned widget text looks like a rank label rather than a
+     * name, world, time or status. Ranks are not whitelisted, so anything
+     * short that starts with a letter and only uses letters, digits, spaces,
+     * apostrophes and dashes is accepted.
+     */
+    static boolean isLikelyRankText(String text)
+    {
+        if (text == null)
+        {
+            return false;
+        }
+
+        String s = text.trim();
+        int len = s.length();
+        if (len == 0 || len > MAX_RANK_LENGTH)
+        {
+            return false;
+        }
+
+        // Allowed characters (letters/digits/spaces/'-)
+        // This still allows “Deputy Owner”, “Co-Leader”, etc., and rules out
+        // pure numbers and times such as "10:42" since they start with a digit
+        if (!isAsciiLetter(s.charAt(0)))
+        {
+            return false;
+        }
+        for (int i = 1; i < len; i++)
+        {
+            char c = s.charAt(i);
+            if (!isAsciiLetter(c) && !isAsciiDigit(c) && c != ' ' && c != '\'' && c != '-')
+            {
+                return false;
+            }
+        }
+
+        // Reject worlds (examples: "W477", "w 477", "world 477")
+        if (isWorldLabel(s))
+        {
+            return false;
+        }
+
+        // Reject common UI/status strings that are not ranks (add more if you see false positives)
+        return !s.equalsIgnoreCase("online")
+            && !s.equalsIgnoreCase("offline")
+            && !s.equalsIgnoreCase("muted")
+            && !s.equalsIgnoreCase("banned");
+    }
+
+    private static boolean isWorldLabel(String s)
+    {
+        int i;
+        if (s.regionMatches(true, 0, "world", 0, 5))
+        {
+            i = 5;
+        }
+        else if (s.charAt(0) == 'w' || s.charAt(0) == 'W')
+        {
+            i = 1;
+        }
+        else
+        {
+            return false;
+        }
+
+        int len = s.length();
+        while (i < len && s.charAt(i) == ' ')
+        {
+            i++;
+        }
+        if (i == len)
+        {
+            return false;
+        }
+        for (; i < len; i++)
+        {
+            if (!isAsciiDigit(s.charAt(i)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Index of the next {@code <col=..>}, {@code </col>} or {@code <img=..>}
+     * tag at or after {@code from}, or -1 if there is none.
+     */
+    private static int firstStrippedTag(String s, int from)
+    {
+        int i = s.indexOf('<', from);
+        while (i >= 0)
+        {
+            if (s.indexOf('>', i) > i
+                && (s.startsWith("col=", i + 1) || s.startsWith("/col>", i + 1) || s.startsWith("img=", i + 1)))
+            {
+                return i;
+            }
+            i = s.indexOf('<', i + 1);
+        }
+        return -1;
+    }
+
+    private static void appendNormalized(StringBuilder sb, String s, int from, int to)
+    {
+        for (int i = from; i < to; i++)
+        {
+            char c = s.charAt(i);
+            if (!isNameSeparator(c))
+            {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+    }
+
+    private static boolean isNameSeparator(char c)
+    {
+        return c <= ' ' || c == '\u00A0' || c == '-' || c == '_';
+    }
+
+    private static boolean isAsciiLetter(char c)
+    {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiDigit(char c)
+    {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,174 @@
+package com.clanrankhelper;
+
+import lombok.Getter;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What the "Ranks Needed" panel shows, computed from the plugin state.
+ *
+ * The plugin rebuilds this only after the rank data, the confirmed sets or
+ * the config change, and bumps {@link #getVersion()} each time, so
+ * {@link ClanRankHelperOverlay} can keep drawing the components it built
+ * for the last version. Instances are immutable.
+ */
+final class RanksNeededView
+{
+    static final RanksNeededView EMPTY = new RanksNeededView(0, 0, 0, 0, false, Collections.emptyList());
+
+    // Define rank order for sorting
+    private static final Map<String, Integer> RANK_ORDER = Map.of(
+        "Recruit", 1,
+        "Corporal", 2,
+        "Sergeant", 3,
+        "Cadet", 4,
+        "Lieutenant", 5,
+        "Captain", 6,
+        "Veteran", 7,
+        "General", 8,
+        "Master", 9
+    );
+
+    /**
+     * A player confirmed to need a rank change.
+     */
+    static final class Row
+    {
+        @Getter
+        private final String displayName;
+
+        @Getter
+        private final String targetRank;
+
+        @Getter
+        private final Color rankColor;
+
+        private Row(String displayName, String targetRank, Color rankColor)
+        {
+            this.displayName = displayName;
+            this.targetRank = targetRank;
+            this.rankColor = rankColor;
+        }
+    }
+
+    @Getter
+    private final int version;
+
+    // Players in the rank data
+    @Getter
+    private final int totalCount;
+
+    // Players in the rank data that have been checked either way
+    @Getter
+    private final int checkedCount;
+
+    // Players confirmed to need a change, including any not in rows
+    @Getter
+    private final int needChangeCount;
+
+    // The whole clan roster was checked, so unchecked players aren't in the clan
+    @Getter
+    private final boolean rosterChecked;
+
+    // Sorted by rank order and capped to maxDisplayed
+    @Getter
+    private final List<Row> rows;
+
+    private RanksNeededView(int version, int totalCount, int checkedCount, int needChangeCount,
+                            boolean rosterChecked, List<Row> rows)
+    {
+        this.version = version;
+        this.totalCount = totalCount;
+        this.checkedCount = checkedCount;
+        this.needChangeCount = needChangeCount;
+        this.rosterChecked = rosterChecked;
+        this.rows = rows;
+    }
+
+    static RanksNeededView build(int version, Map<String, String> pendingChanges, Set<String> confirmedNeedsChange,
+                                 Set<String> confirmedOk, RankConfigSnapshot configSnapshot, int maxDisplay,
+                                 boolean rosterChecked)
+    {
+        // Build list of pending changes - show all confirmed to need a change
+        List<Map.Entry<String, String>> displayList = new ArrayList<>();
+        int checkedCount = 0;
+
+        for (Map.Entry<String, String> entry : pendingChanges.entrySet())
+        {
+            String normalizedName = RankText.normalizeName(entry.getKey());
+
+            // Calculate how many members have been checked
+            boolean needsChange = confirmedNeedsChange.contains(normalizedName);
+            if (needsChange || confirmedOk.contains(normalizedName))
+            {
+                checkedCount++;
+            }
+
+            // Skip if target rank or player is in ignored list
+            if (configSnapshot.isTargetRankIgnored(entry.getValue()) || configSnapshot.isPlayerIgnored(normalizedName))
+            {
+                continue;
+            }
+
+            // Only show if confirmed to need a change
+            if (needsChange)
+            {
+                displayList.add(entry);
+            }
+        }
+
+        // Sort by rank order
+        displayList.sort(Comparator.comparingInt(e -> RANK_ORDER.getOrDefault(e.getValue(), 99)));
+
+        // Limit display if configured
+        int shown = maxDisplay > 0 ? Math.min(maxDisplay, displayList.size()) : displayList.size();
+        List<Row> rows = new ArrayList<>(shown);
+        for (Map.Entry<String, String> entry : displayList.subList(0, shown))
+        {
+            String targetRank = entry.getValue();
+
+            // Capitalize first letter of each word in player name for display
+            rows.add(new Row(capitalizeWords(entry.getKey()), targetRank, configSnapshot.getRankColor(targetRank)));
+        }
+
+        return new RanksNeededView(version, pendingChanges.size(), checkedCount, displayList.size(), rosterChecked,
+            Collections.unmodifiableList(rows));
+    }
+
+    private static String capitalizeWords(String str)
+    {
+        if (str == null || str.isEmpty())
+        {
+            return str;
+        }
+
+        StringBuilder result = new StringBuilder();
+        boolean capitalizeNext = true;
+
+        for (char c : str.toCharArray())
+        {
+            if (Character.isWhitespace(c))
+            {
+                capitalizeNext = true;
+                result.append(c);
+            }
+            else if (capitalizeNext)
+            {
+                result.append(Character.toUpperCase(c));
+                capitalizeNext = false;
+            }
+            else
+            {
+                result.append(c);
+            }
+        }
+
+        return result.toString();
+    }
+}
@@ -0,0 +1,226 @@
+package com.clanrankhelper;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Runs the rank data refresh: every refresh interval while things work,
+ * backing off exponentially while they don't.
+ *
+ * Only one refresh is ever scheduled or running. Triggers that arrive while
+ * one is due or running are folded into it, and every delay gets some
+ * jitter so clients started together don't keep hitting the source on the
+ * same second.
+ *
+ * Periodic refreshes stop while {@code paused} says so, until
+ * {@link #resume()} is called; explicit triggers still go through.
+ */
+@Slf4j
+class RefreshScheduler
+{
+    // Delays are randomly stretched or shrunk by up to this fraction
+    private static final double JITTER = 0.1;
+
+    // Longest wait after repeated failures, unless the interval is longer
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(60);
+
+    // Backoff doubles up to 2^MAX_BACKOFF_SHIFT times the interval
+    private static final int MAX_BACKOFF_SHIFT = 4;
+
+    private final ScheduledExecutorService executor;
+    private final Supplier<FetchResult> refresh;
+    private final IntSupplier intervalMinutes;
+    private final BooleanSupplier paused;
+
+    private final Object lock = new Object();
+    private ScheduledFuture<?> next;
+    private boolean running;
+    private boolean rerunRequested;
+    private boolean stopped;
+    private boolean forced;
+    // Nothing scheduled until resume() or trigger()
+    private boolean idle = true;
+    private int failures;
+    private long lastRunAt;
+
+    RefreshScheduler(ScheduledExecutorService executor, Supplier<FetchResult> refresh,
+                     IntSupplier intervalMinutes, BooleanSupplier paused)
+    {
+        this.executor = executor;
+        this.refresh = refresh;
+        this.intervalMinutes = intervalMinutes;
+        this.paused = paused;
+    }
+
+    /**
+     * Refreshes as soon as possible. A refresh already due is not repeated;
+     * one already running is followed by another, since whatever triggered
+     * this call (e.g. a new URL) may not be reflected in it.
+     */
+    void trigger()
+    {
+        synchronized (lock)
+        {
+            if (stopped)
+            {
+                return;
+            }
+            forced = true;
+            if (running)
+            {
+                rerunRequested = true;
+                return;
+            }
+            if (next != null && next.getDelay(TimeUnit.MILLISECONDS) <= 0)
+            {
+                return;
+            }
+            scheduleLocked(0);
+        }
+    }
+
+    /**
+     * Moves the next periodic refresh after the refresh interval changed.
+     * Backoff after failures is left alone.
+     */
+    void reschedule()
+    {
+        synchronized (lock)
+        {
+            if (stopped || running || failures > 0 || lastRunAt == 0)
+            {
+                return;
+            }
+            long due = lastRunAt + intervalMillis() - System.currentTimeMillis();
+            scheduleLocked(Math.max(0, due));
+        }
+    }
+
+    /**
+     * Restarts periodic refreshes after a pause, refreshing right away if the
+     * data is older than the refresh interval.
+     */
+    void resume()
+    {
+        synchronized (lock)
+        {
+            if (stopped || running || !idle || next != null)
+            {
+                return;
+            }
+            idle = false;
+            long due = lastRunAt == 0 ? 0 : lastRunAt + intervalMillis() - System.currentTimeMillis();
+            scheduleLocked(Math.max(0, due));
+        }
+    }
+
+    void stop()
+    {
+        synchronized (lock)
+        {
+            stopped = true;
+            if (next != null)
+            {
+                next.cancel(false);
+                next = null;
+            }
+        }
+    }
+
+    private void run()
+    {
+        synchronized (lock)
+        {
+            if (stopped)
+            {
+                return;
+            }
+            next = null;
+            if (!forced && paused.getAsBoolean())
+            {
+                idle = true;
+                log.debug("Clan Rank Helper: Refresh paused until rank data is needed again");
+                return;
+            }
+            forced = false;
+            idle = false;
+            running = true;
+        }
+
+        FetchResult result;
+        try
+        {
+            result = refresh.get();
+        }
+        catch (RuntimeException e)
+        {
+            log.error("Clan Rank Helper: Refresh failed", e);
+            result = FetchResult.FAILED;
+        }
+
+        synchronized (lock)
+        {
+            running = false;
+            lastRunAt = System.currentTimeMillis();
+            if (stopped)
+            {
+                return;
+            }
+
+            long delay = nextDelay(result);
+            if (rerunRequested)
+            {
+                rerunRequested = false;
+                delay = 0;
+            }
+            scheduleLocked(delay);
+        }
+    }
+
+    // Package-private for tests
+    long nextDelay(FetchResult result)
+    {
+        long interval = intervalMillis();
+        if (!result.isFailed())
+        {
+            failures = 0;
+            return jitter(interval);
+        }
+
+        failures++;
+        long backoff = Math.min(interval << Math.min(failures, MAX_BACKOFF_SHIFT),
+            Math.max(interval, MAX_BACKOFF_MILLIS));
+        // Jitter may shorten the backoff but never the server's Retry-After
+        long delay = Math.max(jitter(backoff), result.getRetryAfterMillis());
+        log.debug("Clan Rank Helper: Refresh failed {} times in a row, next attempt in {}s",
+            failures, TimeUnit.MILLISECONDS.toSeconds(delay));
+        return delay;
+    }
+
+    private long intervalMillis()
+    {
+        return TimeUnit.MINUTES.toMillis(Math.max(1, intervalMinutes.getAsInt()));
+    }
+
+    private static long jitter(long delay)
+    {
+        double factor = 1 + ThreadLocalRandom.current().nextDouble(-JITTER, JITTER);
+        return (long) (delay * factor);
+    }
+
+    private void scheduleLocked(long delayMillis)
+    {
+        if (next != null)
+        {
+            next.cancel(false);
+        }
+        next = executor.schedule(this::run, delayMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,323 @@
+package com.clanrankhelper;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Singleton;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * Per-frame costs of the overlays while the "Profile Rendering" debug option
+ * is on: time in a fixed-size histogram, plus widget, row and allocation
+ * counts. Everything is recorded on the client thread; summaries may be read
+ * from anywhere.
+ */
+@Slf4j
+@Singleton
+class RenderProfiler
+{
+    // Histogram buckets are 1/SUB_BUCKETS of a power of two wide, so
+    // percentiles are accurate to about 12%
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // Frames of 2^MAX_EXPONENT ns (about a second) or more share the last bucket
+    private static final int MAX_EXPONENT = 30;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    /**
+     * Averages are per frame; times are in nanoseconds, allocation in bytes
+     * (-1 if unavailable).
+     */
+    static final class Summary
+    {
+        @Getter
+        private final String name;
+
+        @Getter
+        private final long frames;
+
+        @Getter
+        private final long p50Nanos;
+
+        @Getter
+        private final long p99Nanos;
+
+        @Getter
+        private final long maxNanos;
+
+        @Getter
+        private final long allocatedBytes;
+
+        @Getter
+        private final double widgetsVisited;
+
+        @Getter
+        private final double rowsMatched;
+
+        @Getter
+        private final double highlightsDrawn;
+
+        private Summary(String name, long frames, long p50Nanos, long p99Nanos, long maxNanos, long allocatedBytes,
+                        double widgetsVisited, double rowsMatched, double highlightsDrawn)
+        {
+            this.name = name;
+            this.frames = frames;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.widgetsVisited = widgetsVisited;
+            this.rowsMatched = rowsMatched;
+            this.highlightsDrawn = highlightsDrawn;
+        }
+
+        @Override
+        public String toString()
+        {
+            return name
+                + " frames=" + frames
+                + " p50Us=" + p50Nanos / 1000
+                + " p99Us=" + p99Nanos / 1000
+                + " maxUs=" + maxNanos / 1000
+                + " allocBytes=" + allocatedBytes
+                + String.format(" widgetsVisited=%.1f rowsMatched=%.1f highlightsDrawn=%.1f",
+                    widgetsVisited, rowsMatched, highlightsDrawn);
+        }
+    }
+
+    /**
+     * The frames of one overlay. Work done for the overlay before it renders,
+     * like reconciling the member list, is added to the next frame.
+     */
+    final class Section
+    {
+        private final String name;
+        private final long[] histogram = new long[BUCKETS];
+
+        private long frames;
+        private long maxNanos;
+        private long allocatedBytes;
+        private long widgetsVisited;
+        private long rowsMatched;
+        private long highlightsDrawn;
+
+        // Work recorded since the last frame
+        private long pendingNanos;
+        private long pendingAllocatedBytes;
+
+        private Section(String name)
+        {
+            this.name = name;
+        }
+
+        synchronized void beforeFrame(long nanos, long allocatedBytes, int widgetsVisited, int rowsMatched)
+        {
+            pendingNanos += nanos;
+            pendingAllocatedBytes += allocatedBytes;
+            this.widgetsVisited += widgetsVisited;
+            this.rowsMatched += rowsMatched;
+        }
+
+        synchronized void frame(long nanos, long allocatedBytes, int highlightsDrawn)
+        {
+            long total = nanos + pendingNanos;
+            histogram[bucket(total)]++;
+            frames++;
+            maxNanos = Math.max(maxNanos, total);
+            this.allocatedBytes += allocatedBytes + pendingAllocatedBytes;
+            this.highlightsDrawn += highlightsDrawn;
+            pendingNanos = 0;
+            pendingAllocatedBytes = 0;
+        }
+
+        synchronized Summary summary()
+        {
+            double perFrame = Math.max(1, frames);
+            return new Summary(name, frames, percentile(0.5), percentile(0.99), maxNanos,
+                allocationsCounted ? Math.round(allocatedBytes / perFrame) : -1,
+                widgetsVisited / perFrame, rowsMatched / perFrame, highlightsDrawn / perFrame);
+        }
+
+        synchronized void reset()
+        {
+            Arrays.fill(histogram, 0);
+            frames = 0;
+            maxNanos = 0;
+            allocatedBytes = 0;
+            widgetsVisited = 0;
+            rowsMatched = 0;
+            highlightsDrawn = 0;
+            pendingNanos = 0;
+            pendingAllocatedBytes = 0;
+        }
+
+        /**
+         * Upper bound of the bucket holding the given fraction of frames.
+         */
+        private long percentile(double fraction)
+        {
+            if (frames == 0)
+            {
+                return 0;
+            }
+
+            long rank = (long) Math.ceil(fraction * frames);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++)
+            {
+                seen += histogram[i];
+                if (seen >= rank)
+                {
+                    return Math.min(maxNanos, bucketStart(i + 1) - 1);
+                }
+            }
+            return maxNanos;
+        }
+    }
+
+    @Getter
+    private final Section memberList = new Section("Member list");
+
+    @Getter
+    private final Section panel = new Section("Panel");
+
+    @Getter
+    private volatile boolean enabled;
+
+    // Counting allocations is a JVM-wide setting, so it is only looked up
+    // and switched on while profiling. Null if off or unsupported
+    private volatile com.sun.management.ThreadMXBean threads;
+    private boolean switchedOnAllocationCounting;
+
+    // Whether the last recording counted allocations; kept once it stops
+    private volatile boolean allocationsCounted;
+
+    // What reading the allocation counter allocates itself
+    private volatile long counterOverhead;
+
+    /**
+     * Starts or stops recording. Turning it on starts from scratch.
+     */
+    synchronized void setEnabled(boolean enabled)
+    {
+        if (enabled && !this.enabled)
+        {
+            reset();
+            allocationsCounted = false;
+            startAllocationCounting();
+        }
+        else if (!enabled && this.enabled)
+        {
+            stopAllocationCounting();
+        }
+        this.enabled = enabled;
+    }
+
+    void reset()
+    {
+        memberList.reset();
+        panel.reset();
+    }
+
+    /**
+     * Bytes allocated by the current thread so far, 0 if the JVM can't tell.
+     * Read before the work and pass to {@link #allocatedSince} after it.
+     */
+    long allocatedBytes()
+    {
+        com.sun.management.ThreadMXBean threads = this.threads;
+        return threads != null ? threads.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    /**
+     * What was allocated since the {@code start} reading.
+     */
+    long allocatedSince(long start)
+    {
+        return Math.max(0, allocatedBytes() - start - counterOverhead);
+    }
+
+    void dump()
+    {
+        log.info("Clan Rank Helper render profile: {}", memberList.summary());
+        log.info("Clan Rank Helper render profile: {}", panel.summary());
+    }
+
+    static int bucket(long nanos)
+    {
+        if (nanos < SUB_BUCKETS)
+        {
+            return (int) Math.max(0, nanos);
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent >= MAX_EXPONENT)
+        {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketStart(int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+        {
+            return bucket;
+        }
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    private void startAllocationCounting()
+    {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+        {
+            return;
+        }
+
+        com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) bean;
+        if (!counter.isThreadAllocatedMemorySupported())
+        {
+            return;
+        }
+        if (!counter.isThreadAllocatedMemoryEnabled())
+        {
+            counter.setThreadAllocatedMemoryEnabled(true);
+            switchedOnAllocationCounting = true;
+        }
+        counterOverhead = measureCounterOverhead(counter);
+        threads = counter;
+        allocationsCounted = true;
+    }
+
+    // Leaves the JVM setting as it was before profiling
+    private void stopAllocationCounting()
+    {
+        com.sun.management.ThreadMXBean counter = threads;
+        threads = null;
+        if (counter != null && switchedOnAllocationCounting)
+        {
+            counter.setThreadAllocatedMemoryEnabled(false);
+            switchedOnAllocationCounting = false;
+        }
+    }
+
+    private static long measureCounterOverhead(com.sun.management.ThreadMXBean counter)
+    {
+        long thread = Thread.currentThread().getId();
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++)
+        {
+            long start = counter.getThreadAllocatedBytes(thread);
+            overhead = Math.min(overhead, counter.getThreadAllocatedBytes(thread) - start);
+        }
+        return overhead;
+    }
+}
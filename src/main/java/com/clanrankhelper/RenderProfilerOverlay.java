@@ -0,0 +1,115 @@
+package com.clanrankhelper;
+
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.OverlayPriority;
+import net.runelite.client.ui.overlay.components.LayoutableRenderableEntity;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+import javax.inject.Inject;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Debug panel with the {@link RenderProfiler} numbers, shown while
+ * profiling is on.
+ */
+public class RenderProfilerOverlay extends OverlayPanel
+{
+    // The numbers move every frame; rebuilding at this rate keeps them readable
+    private static final long REFRESH_MILLIS = 500;
+
+    private final RenderProfiler profiler;
+
+    private List<LayoutableRenderableEntity> components = new ArrayList<>();
+    private long componentsBuiltAt;
+
+    @Inject
+    public RenderProfilerOverlay(ClanRankHelperPlugin plugin, RenderProfiler profiler)
+    {
+        super(plugin);
+        this.profiler = profiler;
+        setPosition(OverlayPosition.TOP_RIGHT);
+        setPriority(OverlayPriority.LOW);
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics)
+    {
+        if (!profiler.isEnabled())
+        {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - componentsBuiltAt >= REFRESH_MILLIS)
+        {
+            components = buildComponents();
+            componentsBuiltAt = now;
+        }
+
+        panelComponent.getChildren().addAll(components);
+        return super.render(graphics);
+    }
+
+    private List<LayoutableRenderableEntity> buildComponents()
+    {
+        List<LayoutableRenderableEntity> children = new ArrayList<>();
+        children.add(TitleComponent.builder()
+            .text("Render profile")
+            .color(Color.YELLOW)
+            .build());
+
+        addSection(children, profiler.getMemberList().summary(), true);
+        addSection(children, profiler.getPanel().summary(), false);
+        return children;
+    }
+
+    private static void addSection(List<LayoutableRenderableEntity> children, RenderProfiler.Summary summary,
+                                   boolean showRows)
+    {
+        children.add(LineComponent.builder()
+            .left(summary.getName())
+            .leftColor(Color.WHITE)
+            .right(summary.getFrames() + " frames")
+            .rightColor(Color.GRAY)
+            .build());
+        children.add(LineComponent.builder()
+            .left("p50 / p99")
+            .leftColor(Color.GRAY)
+            .right(micros(summary.getP50Nanos()) + " / " + micros(summary.getP99Nanos()) + " µs")
+            .rightColor(Color.WHITE)
+            .build());
+        if (summary.getAllocatedBytes() >= 0)
+        {
+            children.add(LineComponent.builder()
+                .left("Alloc / frame")
+                .leftColor(Color.GRAY)
+                .right(summary.getAllocatedBytes() + " B")
+                .rightColor(Color.WHITE)
+                .build());
+        }
+        if (showRows)
+        {
+            children.add(LineComponent.builder()
+                .left("Visited / matched")
+                .leftColor(Color.GRAY)
+                .right(String.format("%.1f / %.1f", summary.getWidgetsVisited(), summary.getRowsMatched()))
+                .rightColor(Color.WHITE)
+                .build());
+            children.add(LineComponent.builder()
+                .left("Drawn")
+                .leftColor(Color.GRAY)
+                .right(String.format("%.1f", summary.getHighlightsDrawn()))
+                .rightColor(Color.WHITE)
+                .build());
+        }
+    }
+
+    private static long micros(long nanos)
+    {
+        return nanos / 1000;
+    }
+}
@@ -0,0 +1,23 @@
+package com.clanrankhelper;
+
+/**
+ * Which source wins when several of them list the same player.
+ */
+public enum SourcePrecedence
+{
+    FIRST_WINS("First source wins"),
+    LAST_WINS("Last source wins");
+
+    private final String name;
+
+    SourcePrecedence(String name)
+    {
+        this.name = name;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+}
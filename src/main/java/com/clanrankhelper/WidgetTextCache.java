@@ -0,0 +1,71 @@
+package com.clanrankhelper;
+
+import lombok.Getter;
+
+import javax.inject.Singleton;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache from raw widget text to its cleaned form, lookup key and
+ * rank verdict.
+ *
+ * The member list shows the same few hundred strings over and over, so once
+ * warmed up almost every lookup is answered without touching the text.
+ * Only used from the client thread.
+ */
+@Singleton
+class WidgetTextCache
+{
+    private static final int MAX_ENTRIES = 2048;
+
+    /**
+     * What the overlays need to know about one piece of widget text.
+     */
+    static final class TextInfo
+    {
+        // See RankText.extractCleanText
+        @Getter
+        private final String clean;
+
+        // See RankText.normalizeName
+        @Getter
+        private final String normalized;
+
+        // See RankText.isLikelyRankText
+        @Getter
+        private final boolean rankLike;
+
+        private TextInfo(String raw)
+        {
+            clean = RankText.extractCleanText(raw);
+            normalized = RankText.normalizeName(clean);
+            rankLike = RankText.isLikelyRankText(clean);
+        }
+    }
+
+    private final Map<String, TextInfo> cache = new LinkedHashMap<String, TextInfo>(MAX_ENTRIES, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TextInfo> eldest)
+        {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    TextInfo get(String raw)
+    {
+        TextInfo info = cache.get(raw);
+        if (info == null)
+        {
+            info = new TextInfo(raw);
+            cache.put(raw, info);
+        }
+        return info;
+    }
+
+    void clear()
+    {
+        cache.clear();
+    }
+}
@@ -0,0 +1,269 @@
+package com.clanrankhelper;
+
+import lombok.Getter;
+import net.runelite.api.Client;
+import net.runelite.api.widgets.Widget;
+
+import java.awt.Rectangle;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Snapshots of an interface's widget tree: text, bounds, hidden flag and
+ * scroll position of every component and its dynamic children. A sequence
+ * of them (e.g. while scrolling the member list) can be replayed into the
+ * overlay without a client.
+ *
+ * The file is gzipped text, one line per widget:
+ * <pre>
+ * clan-rank-helper widgets 1
+ * frame
+ * c child parent x y width height hidden scrollY text
+ * d index x y width height hidden text
+ * </pre>
+ * A {@code c} line is a component ({@code parent} is the component it sits
+ * in, -1 if none), the {@code d} lines after it are its dynamic children.
+ * Text runs to the end of the line with backslashes and newlines escaped.
+ */
+final class WidgetTreeRecording
+{
+    private static final String HEADER = "clan-rank-helper widgets 1";
+
+    // Component ids checked when capturing; interfaces have far fewer
+    private static final int MAX_COMPONENTS = 1024;
+
+    static final class Node
+    {
+        // Component id within the group, -1 for a dynamic child
+        @Getter
+        private final int child;
+
+        // Position among the dynamic children, -1 for a component
+        @Getter
+        private final int index;
+
+        // Component this one sits in, -1 if none or for a dynamic child
+        @Getter
+        private final int parent;
+
+        @Getter
+        private final Rectangle bounds;
+
+        @Getter
+        private final boolean hidden;
+
+        @Getter
+        private final int scrollY;
+
+        @Getter
+        private final String text;
+
+        @Getter
+        private final List<Node> dynamicChildren;
+
+        Node(int child, int index, int parent, Rectangle bounds, boolean hidden, int scrollY, String text,
+             List<Node> dynamicChildren)
+        {
+            this.child = child;
+            this.index = index;
+            this.parent = parent;
+            this.bounds = bounds;
+            this.hidden = hidden;
+            this.scrollY = scrollY;
+            this.text = text;
+            this.dynamicChildren = dynamicChildren;
+        }
+    }
+
+    /**
+     * Every loaded component of the interface at one moment.
+     */
+    static final class Frame
+    {
+        @Getter
+        private final List<Node> components;
+
+        Frame(List<Node> components)
+        {
+            this.components = components;
+        }
+    }
+
+    private WidgetTreeRecording()
+    {
+    }
+
+    /**
+     * Snapshots the interface as it is now. Must run on the client thread.
+     */
+    static Frame capture(Client client, int groupId)
+    {
+        List<Node> components = new ArrayList<>();
+        for (int child = 0; child < MAX_COMPONENTS; child++)
+        {
+            Widget widget = client.getWidget(groupId, child);
+            if (widget == null)
+            {
+                continue;
+            }
+
+            int parentId = widget.getParentId();
+            int parent = parentId != -1 && parentId >>> 16 == groupId ? parentId & 0xFFFF : -1;
+
+            List<Node> dynamicChildren = new ArrayList<>();
+            Widget[] dynamic = widget.getDynamicChildren();
+            if (dynamic != null)
+            {
+                for (int i = 0; i < dynamic.length; i++)
+                {
+                    if (dynamic[i] != null)
+                    {
+                        dynamicChildren.add(new Node(-1, i, -1, bounds(dynamic[i]), dynamic[i].isHidden(), 0,
+                            text(dynamic[i]), Collections.emptyList()));
+                    }
+                }
+            }
+
+            components.add(new Node(child, -1, parent, bounds(widget), widget.isHidden(), widget.getScrollY(),
+                text(widget), dynamicChildren));
+        }
+        return new Frame(components);
+    }
+
+    static void write(List<Frame> frames, OutputStream out) throws IOException
+    {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(out), StandardCharsets.UTF_8));
+        writer.write(HEADER);
+        writer.write('\n');
+        for (Frame frame : frames)
+        {
+            writer.write("frame\n");
+            for (Node component : frame.getComponents())
+            {
+                writer.write("c " + component.child + " " + component.parent + " " + geometry(component) + " "
+                    + component.scrollY + " " + escape(component.text) + "\n");
+                for (Node child : component.dynamicChildren)
+                {
+                    writer.write("d " + child.index + " " + geometry(child) + " " + escape(child.text) + "\n");
+                }
+            }
+        }
+        writer.close();
+    }
+
+    static List<Frame> read(InputStream in) throws IOException
+    {
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(new GZIPInputStream(in), StandardCharsets.UTF_8));
+        if (!HEADER.equals(reader.readLine()))
+        {
+            throw new IOException("Not a widget recording");
+        }
+
+        List<Frame> frames = new ArrayList<>();
+        List<Node> components = null;
+        List<Node> dynamicChildren = null;
+        String line;
+        int lineNumber = 1;
+        while ((line = reader.readLine()) != null)
+        {
+            lineNumber++;
+            if (line.equals("frame"))
+            {
+                components = new ArrayList<>();
+                frames.add(new Frame(components));
+                continue;
+            }
+
+            String[] parts = line.split(" ", line.startsWith("c ") ? 10 : 8);
+            try
+            {
+                if (line.startsWith("c ") && components != null && parts.length == 10)
+                {
+                    dynamicChildren = new ArrayList<>();
+                    components.add(new Node(Integer.parseInt(parts[1]), -1, Integer.parseInt(parts[2]),
+                        parseBounds(parts, 3), parts[7].equals("1"), Integer.parseInt(parts[8]),
+                        unescape(parts[9]), dynamicChildren));
+                    continue;
+                }
+                if (line.startsWith("d ") && dynamicChildren != null && parts.length == 8)
+                {
+                    dynamicChildren.add(new Node(-1, Integer.parseInt(parts[1]), -1, parseBounds(parts, 2),
+                        parts[6].equals("1"), 0, unescape(parts[7]), Collections.emptyList()));
+                    continue;
+                }
+            }
+            catch (NumberFormatException e)
+            {
+                // Reported below
+            }
+            throw new IOException("Malformed widget recording at line " + lineNumber);
+        }
+        return frames;
+    }
+
+    private static Rectangle bounds(Widget widget)
+    {
+        Rectangle bounds = widget.getBounds();
+        return bounds != null ? new Rectangle(bounds) : new Rectangle();
+    }
+
+    private static String text(Widget widget)
+    {
+        String text = widget.getText();
+        return text != null ? text : "";
+    }
+
+    private static String geometry(Node node)
+    {
+        Rectangle b = node.bounds;
+        return b.x + " " + b.y + " " + b.width + " " + b.height + " " + (node.hidden ? 1 : 0);
+    }
+
+    private static Rectangle parseBounds(String[] parts, int start)
+    {
+        return new Rectangle(Integer.parseInt(parts[start]), Integer.parseInt(parts[start + 1]),
+            Integer.parseInt(parts[start + 2]), Integer.parseInt(parts[start + 3]));
+    }
+
+    private static String escape(String text)
+    {
+        return text.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String text)
+    {
+        if (text.indexOf('\\') < 0)
+        {
+            return text;
+        }
+
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length())
+            {
+                char next = text.charAt(++i);
+                sb.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            }
+            else
+            {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
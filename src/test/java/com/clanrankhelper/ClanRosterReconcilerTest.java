@@ -0,0 +1,89 @@
+package com.clanrankhelper;
+
+import net.runelite.api.Client;
+import net.runelite.api.clan.ClanRank;
+import net.runelite.api.clan.ClanSettings;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Full roster checks against a {@link SyntheticMemberList} clan of
+ * {@link #ROSTER} members, every third of whom needs a promotion.
+ */
+public class ClanRosterReconcilerTest
+{
+    private static final int ROSTER = 40;
+
+    // Players 0, 3, ..., 39
+    private static final int NEED_CHANGE = 14;
+
+    @Test
+    public void wholeRosterIsChecked() throws ReflectiveOperationException
+    {
+        SyntheticMemberList list = new SyntheticMemberList(14, ROSTER);
+        ClanRankHelperPlugin plugin = reconcile(list, list.getClient(), "");
+
+        RanksNeededView view = plugin.getRanksNeededView();
+        assertEquals(ROSTER, view.getCheckedCount());
+        assertEquals(NEED_CHANGE, view.getNeedChangeCount());
+        assertTrue(view.isRosterChecked());
+    }
+
+    @Test
+    public void ignoredMembersCountAsChecked() throws ReflectiveOperationException
+    {
+        SyntheticMemberList list = new SyntheticMemberList(14, ROSTER);
+        // Both need a promotion
+        ClanRankHelperPlugin plugin = reconcile(list, list.getClient(),
+            SyntheticMemberList.playerName(0) + "," + SyntheticMemberList.playerName(3));
+
+        // Not reported as missing from the clan
+        RanksNeededView view = plugin.getRanksNeededView();
+        assertEquals(ROSTER, view.getCheckedCount());
+        assertEquals(NEED_CHANGE - 2, view.getNeedChangeCount());
+        assertTrue(view.isRosterChecked());
+    }
+
+    @Test
+    public void unknownTitlesLeaveTheRosterUnchecked() throws ReflectiveOperationException
+    {
+        SyntheticMemberList list = new SyntheticMemberList(14, ROSTER);
+        ClanSettings settings = list.getClient().getClanSettings();
+
+        // The client knows no title for the highest rank
+        ClanSettings missingTitle = Fakes.proxy(ClanSettings.class, (proxy, method, args) ->
+            method.getName().equals("titleForRank") && ((ClanRank) args[0]).getRank() == 5
+                ? null
+                : method.invoke(settings, args));
+        Client client = Fakes.proxy(Client.class, (proxy, method, args) ->
+            method.getName().equals("getClanSettings") ? missingTitle : method.invoke(list.getClient(), args));
+
+        ClanRankHelperPlugin plugin = reconcile(list, client, "");
+
+        // Players 5, 11, ..., 35 were skipped, so the scroll hint stays
+        RanksNeededView view = plugin.getRanksNeededView();
+        assertEquals(ROSTER - 6, view.getCheckedCount());
+        assertFalse(view.isRosterChecked());
+    }
+
+    private static ClanRankHelperPlugin reconcile(SyntheticMemberList list, Client client, String ignoredPlayers)
+        throws ReflectiveOperationException
+    {
+        ClanRankHelperConfig config = new ClanRankHelperConfig()
+        {
+            @Override
+            public String ignoredPlayers()
+            {
+                return ignoredPlayers;
+            }
+        };
+        ClanRankHelperPlugin plugin = SyntheticMemberList.newPlugin(config, list.getRankData());
+
+        WidgetTextCache textCache = new WidgetTextCache();
+        new ClanRosterReconciler(client, plugin, config, new MemberListWidgets(textCache), textCache).reconcile();
+        return plugin;
+    }
+}
@@ -0,0 +1,93 @@
+package com.clanrankhelper;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CsvReaderTest
+{
+    private static final int[] FIRST_TWO = {0, 1};
+
+    @Test
+    public void escapedQuotesAreUnescaped() throws IOException
+    {
+        CsvReader reader = new CsvReader(new StringReader("\"Say \"\"hi\"\"\",\"\"\"\"\n"));
+        String[] out = new String[2];
+
+        assertEquals(2, reader.readRecord(FIRST_TWO, out));
+        assertEquals("Say \"hi\"", out[0]);
+        assertEquals("\"", out[1]);
+        assertEquals(-1, reader.readRecord(FIRST_TWO, out));
+    }
+
+    @Test
+    public void quotedLineBreaksStayInTheCell() throws IOException
+    {
+        CsvReader reader = new CsvReader(new StringReader("\"Line one\nLine two\",General\r\n\"a\r\nb\",Captain\r\n"));
+        String[] out = new String[2];
+
+        assertEquals(2, reader.readRecord(FIRST_TWO, out));
+        assertEquals("Line one\nLine two", out[0]);
+        assertEquals("General", out[1]);
+
+        assertEquals(2, reader.readRecord(FIRST_TWO, out));
+        assertEquals("a\r\nb", out[0]);
+        assertEquals("Captain", out[1]);
+
+        assertEquals(-1, reader.readRecord(FIRST_TWO, out));
+    }
+
+    @Test
+    public void everyLineEndingSeparatesRecords() throws IOException
+    {
+        CsvReader reader = new CsvReader(new StringReader("a\r\nb\nc\rd"));
+        String[] out = new String[1];
+        int[] first = {0};
+
+        for (String expected : new String[]{"a", "b", "c", "d"})
+        {
+            assertEquals(1, reader.readRecord(first, out));
+            assertEquals(expected, out[0]);
+        }
+        assertEquals(-1, reader.readRecord(first, out));
+    }
+
+    @Test
+    public void onlyRequestedCellsAreKept() throws IOException
+    {
+        CsvReader reader = new CsvReader(new StringReader("skip,\"also, skipped\",Alice,General\nBob\n"));
+        String[] out = new String[2];
+        int[] columns = {3, 2};
+
+        assertEquals(4, reader.readRecord(columns, out));
+        assertEquals("General", out[0]);
+        assertEquals("Alice", out[1]);
+
+        // Short records leave the missing cells null
+        assertEquals(1, reader.readRecord(columns, out));
+        assertNull(out[0]);
+        assertNull(out[1]);
+    }
+
+    @Test
+    public void cellsMaySpanBufferRefills() throws IOException
+    {
+        StringBuilder longCell = new StringBuilder();
+        for (int i = 0; i < 10000; i++)
+        {
+            longCell.append(i % 10 == 0 ? "\"\"" : "x");
+        }
+        String expected = longCell.toString().replace("\"\"", "\"");
+
+        CsvReader reader = new CsvReader(new StringReader("\"" + longCell + "\",end\n"));
+        String[] out = new String[2];
+
+        assertEquals(2, reader.readRecord(FIRST_TWO, out));
+        assertEquals(expected, out[0]);
+        assertEquals("end", out[1]);
+    }
+}
@@ -0,0 +1,43 @@
+package com.clanrankhelper;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Proxy stand-ins for client interfaces such as {@code Client} and
+ * {@code Widget}, shared by the replay tests and the benchmarks.
+ */
+final class Fakes
+{
+    private Fakes()
+    {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T proxy(Class<T> type, InvocationHandler handler)
+    {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    /**
+     * Identity semantics for Object methods, zero/false/null for the rest.
+     * Handlers fall back to this for every method they don't fake.
+     */
+    static Object defaultValue(Object proxy, Method method, Object[] args)
+    {
+        switch (method.getName())
+        {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Fake" + method.getDeclaringClass().getSimpleName();
+        }
+
+        Class<?> type = method.getReturnType();
+        return type.isPrimitive() && type != void.class ? Array.get(Array.newInstance(type, 1), 0) : null;
+    }
+}
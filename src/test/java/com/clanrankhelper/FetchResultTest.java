@@ -0,0 +1,66 @@
+package com.clanrankhelper;
+
+import org.junit.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FetchResultTest
+{
+    private static final long NOW = ZonedDateTime.of(2024, 3, 1, 12, 0, 0, 0, ZoneOffset.UTC)
+        .toInstant().toEpochMilli();
+
+    @Test
+    public void retryAfterInSeconds()
+    {
+        assertEquals(TimeUnit.SECONDS.toMillis(120), FetchResult.parseRetryAfter("120", NOW));
+        assertEquals(TimeUnit.SECONDS.toMillis(5), FetchResult.parseRetryAfter(" 5 ", NOW));
+    }
+
+    @Test
+    public void retryAfterAsDate()
+    {
+        String inFiveMinutes = DateTimeFormatter.RFC_1123_DATE_TIME
+            .format(ZonedDateTime.of(2024, 3, 1, 12, 5, 0, 0, ZoneOffset.UTC));
+
+        assertEquals(TimeUnit.MINUTES.toMillis(5), FetchResult.parseRetryAfter(inFiveMinutes, NOW));
+        assertEquals(0, FetchResult.parseRetryAfter("Fri, 01 Mar 2024 11:00:00 GMT", NOW));
+    }
+
+    @Test
+    public void retryAfterIsCapped()
+    {
+        assertEquals(FetchResult.MAX_RETRY_AFTER_MILLIS, FetchResult.parseRetryAfter("99999999", NOW));
+        assertEquals(FetchResult.MAX_RETRY_AFTER_MILLIS,
+            FetchResult.parseRetryAfter("Tue, 01 Mar 2039 12:00:00 GMT", NOW));
+    }
+
+    @Test
+    public void missingOrMalformedRetryAfterIsZero()
+    {
+        assertEquals(0, FetchResult.parseRetryAfter(null, NOW));
+        assertEquals(0, FetchResult.parseRetryAfter("", NOW));
+        assertEquals(0, FetchResult.parseRetryAfter("-30", NOW));
+        assertEquals(0, FetchResult.parseRetryAfter("soon", NOW));
+    }
+
+    @Test
+    public void combineKeepsTheLongestRetryAfter()
+    {
+        FetchResult shortWait = FetchResult.failedRetryAfter(1000);
+        FetchResult longWait = FetchResult.failedRetryAfter(5000);
+
+        assertSame(FetchResult.OK, FetchResult.OK.combine(FetchResult.OK));
+        assertSame(longWait, shortWait.combine(longWait));
+        assertSame(longWait, longWait.combine(FetchResult.OK));
+        assertTrue(FetchResult.OK.combine(FetchResult.FAILED).isFailed());
+        assertFalse(FetchResult.OK.combine(FetchResult.OK).isFailed());
+    }
+}
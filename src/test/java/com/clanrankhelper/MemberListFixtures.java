@@ -0,0 +1,78 @@
+package com.clanrankhelper;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the fixtures of {@link MemberListReplayTest}: a
+ * {@link SyntheticMemberList} of {@link #ROWS} members recorded while
+ * scrolling one row at a time from top to bottom, and its rank data as a
+ * sheet export.
+ *
+ * Run with {@code ./gradlew generateReplayFixtures}; the output is the same
+ * on every run.
+ */
+public final class MemberListFixtures
+{
+    static final String RECORDING = "member-list-scroll.txt.gz";
+    static final String RANKS = "member-list-ranks.csv";
+
+    static final int ROWS = 40;
+
+    private MemberListFixtures()
+    {
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 1)
+        {
+            System.err.println("Usage: MemberListFixtures <output directory>");
+            System.exit(1);
+        }
+
+        File dir = new File(args[0]);
+        SyntheticMemberList list = new SyntheticMemberList(ROWS, ROWS);
+        try (OutputStream out = new FileOutputStream(new File(dir, RECORDING)))
+        {
+            WidgetTreeRecording.write(recordScroll(list), out);
+        }
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(new File(dir, RANKS)), StandardCharsets.UTF_8))
+        {
+            writeRanks(list.getRankData(), out);
+        }
+    }
+
+    // A frame at every scroll position, top to bottom
+    private static List<WidgetTreeRecording.Frame> recordScroll(SyntheticMemberList list)
+    {
+        int scrollRows = (ROWS * SyntheticMemberList.ROW_HEIGHT - SyntheticMemberList.PANEL_HEIGHT)
+            / SyntheticMemberList.ROW_HEIGHT;
+        List<WidgetTreeRecording.Frame> frames = new ArrayList<>(scrollRows + 1);
+        for (int i = 0; i <= scrollRows; i++)
+        {
+            frames.add(WidgetTreeRecording.capture(list.getClient(), MemberListWidgets.CLAN_SETTINGS_GROUP_ID));
+            list.scrollOneRow();
+        }
+        return frames;
+    }
+
+    // In member list order, names as shown in game
+    private static void writeRanks(Map<String, String> rankData, Writer out) throws IOException
+    {
+        out.write("RSN,Rank\n");
+        for (int i = 0; i < ROWS; i++)
+        {
+            String name = SyntheticMemberList.playerName(i);
+            out.write(name + "," + rankData.get(name.toLowerCase()) + "\n");
+        }
+    }
+}
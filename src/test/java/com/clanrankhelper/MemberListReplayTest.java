@@ -0,0 +1,227 @@
+package com.clanrankhelper;
+
+import net.runelite.api.ScriptEvent;
+import net.runelite.api.events.ScriptPreFired;
+import net.runelite.api.widgets.Widget;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Replays a recording of the member list being scrolled from top to bottom
+ * into the reconciler and {@link ClanChatOverlay}, checking what they find
+ * and what each frame costs.
+ *
+ * The fixture is 40 members of which every third needs a promotion, see
+ * member-list-ranks.csv, generated by {@link MemberListFixtures}. New
+ * recordings can be made with the "Record Member List" debug option.
+ *
+ * Allocation is checked on every run. Frame times depend on the machine, so
+ * they are only checked with {@code -Dclanrankhelper.frameBudgets=true}.
+ */
+public class MemberListReplayTest
+{
+    // Any script; the plugin only looks at the component it fired on
+    private static final int HOVER_SCRIPT_ID = 4730;
+
+    private static final boolean CHECK_FRAME_TIMES = Boolean.getBoolean("clanrankhelper.frameBudgets");
+
+    // Budgets per frame (reconcile + render). The median is the real check;
+    // p99 only catches stalls, since JIT and GC threads competing for a
+    // small build machine's CPUs put a few ms into the slowest frames
+    private static final long P50_FRAME_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long P99_FRAME_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(25);
+
+    // Bytes the plugin itself may allocate per frame
+    private static final long SCROLL_FRAME_ALLOCATION_BUDGET = 48 * 1024;
+    private static final long STEADY_FRAME_ALLOCATION_BUDGET = 1024;
+
+    // Java2D allocates a few KB for every translucent fill in software
+    // rendering, which the overlay does once per highlight
+    private static final long DRAWING_ALLOCATION_PER_HIGHLIGHT = 4 * 1024;
+
+    // Passes over the recording before measuring, so the JIT has kicked in
+    private static final int WARMUP_PASSES = 200;
+    private static final int MEASURED_PASSES = 20;
+
+    private WidgetTreeReplay replay;
+    private ClanRankHelperPlugin plugin;
+    private MemberListWidgets memberListWidgets;
+    private MemberListReconciler reconciler;
+    private ClanChatOverlay overlay;
+    private RenderProfiler profiler;
+    private Graphics2D graphics;
+
+    @Before
+    public void setUp() throws IOException, ReflectiveOperationException
+    {
+        replay = WidgetTreeReplay.load(MemberListFixtures.RECORDING, MemberListWidgets.CLAN_SETTINGS_GROUP_ID);
+
+        ClanRankHelperConfig config = new ClanRankHelperConfig()
+        {
+        };
+        plugin = SyntheticMemberList.newPlugin(config, loadRanks());
+
+        WidgetTextCache textCache = new WidgetTextCache();
+        profiler = new RenderProfiler();
+        memberListWidgets = new MemberListWidgets(textCache);
+        SyntheticMemberList.setField(plugin, "memberListWidgets", memberListWidgets);
+        reconciler = new MemberListReconciler(replay.getClient(), plugin, config, memberListWidgets, textCache,
+            profiler);
+        overlay = new ClanChatOverlay(plugin, config, reconciler, profiler);
+
+        graphics = new BufferedImage(765, 503, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        graphics.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
+    }
+
+    @After
+    public void tearDown()
+    {
+        graphics.dispose();
+    }
+
+    @Test
+    public void scrollingThroughTheListChecksEveryMember()
+    {
+        scrollFrame(0);
+        // Rows 0, 3, 6, 9 and 12 of the 14 visible ones
+        assertEquals(5, reconciler.getHighlights().size());
+
+        for (int frame = 1; frame < replay.getFrameCount(); frame++)
+        {
+            scrollFrame(frame);
+        }
+        assertEquals(14, plugin.getConfirmedNeedsChange().size());
+        assertEquals(26, plugin.getConfirmedOk().size());
+    }
+
+    @Test
+    public void unrelatedScriptsDoNotRecompute()
+    {
+        scrollFrame(0);
+        int generation = memberListWidgets.getGeneration();
+        List<MemberListReconciler.Highlight> highlights = reconciler.getHighlights();
+
+        // e.g. the hover listener of a row, which redraws nothing
+        Widget row = replay.getClient().getWidget(MemberListWidgets.CLAN_SETTINGS_GROUP_ID,
+            MemberListWidgets.CLAN_MEMBER_NAME_CHILD).getChildren()[0];
+        ScriptPreFired event = new ScriptPreFired(HOVER_SCRIPT_ID);
+        event.setScriptEvent(Fakes.proxy(ScriptEvent.class, (proxy, method, args) ->
+            method.getName().equals("getSource") ? row : Fakes.defaultValue(proxy, method, args)));
+        plugin.onScriptPreFired(event);
+        steadyFrame();
+
+        assertEquals(generation, memberListWidgets.getGeneration());
+        assertSame(highlights, reconciler.getHighlights());
+
+        // An actual scroll still does
+        scrollFrame(1);
+        assertEquals(generation + 1, memberListWidgets.getGeneration());
+    }
+
+    @Test
+    public void scrollFramesStayWithinBudgets()
+    {
+        for (int pass = 0; pass < WARMUP_PASSES; pass++)
+        {
+            scrollThrough();
+        }
+
+        profiler.setEnabled(true);
+        for (int pass = 0; pass < MEASURED_PASSES; pass++)
+        {
+            scrollThrough();
+        }
+
+        RenderProfiler.Summary summary = profiler.getMemberList().summary();
+        assertEquals(MEASURED_PASSES * replay.getFrameCount(), summary.getFrames());
+        assertWithinBudgets(summary, SCROLL_FRAME_ALLOCATION_BUDGET);
+    }
+
+    @Test
+    public void steadyFramesOnlyAllocateForDrawing()
+    {
+        scrollFrame(0);
+        for (int i = 0; i < WARMUP_PASSES * replay.getFrameCount(); i++)
+        {
+            steadyFrame();
+        }
+
+        profiler.setEnabled(true);
+        for (int i = 0; i < MEASURED_PASSES * replay.getFrameCount(); i++)
+        {
+            steadyFrame();
+        }
+
+        assertWithinBudgets(profiler.getMemberList().summary(), STEADY_FRAME_ALLOCATION_BUDGET);
+    }
+
+    private static void assertWithinBudgets(RenderProfiler.Summary summary, long allocationBudget)
+    {
+        if (CHECK_FRAME_TIMES)
+        {
+            assertTrue(summary.toString(), summary.getP50Nanos() < P50_FRAME_BUDGET_NANOS);
+            assertTrue(summary.toString(), summary.getP99Nanos() < P99_FRAME_BUDGET_NANOS);
+        }
+
+        assumeTrue("Allocation counter unavailable", summary.getAllocatedBytes() >= 0);
+        double budget = allocationBudget + summary.getHighlightsDrawn() * DRAWING_ALLOCATION_PER_HIGHLIGHT;
+        assertTrue(summary.toString(), summary.getAllocatedBytes() < budget);
+    }
+
+    private void scrollThrough()
+    {
+        for (int frame = 0; frame < replay.getFrameCount(); frame++)
+        {
+            scrollFrame(frame);
+        }
+    }
+
+    /**
+     * A frame after the list scrolled, as signalled by the scrollbar script.
+     */
+    private void scrollFrame(int frame)
+    {
+        replay.show(frame);
+        memberListWidgets.invalidate();
+        reconciler.reconcile();
+        overlay.render(graphics);
+    }
+
+    /**
+     * A frame with nothing changed, the common case.
+     */
+    private void steadyFrame()
+    {
+        reconciler.reconcile();
+        overlay.render(graphics);
+    }
+
+    private static Map<String, String> loadRanks() throws IOException
+    {
+        try (InputStream in = MemberListReplayTest.class.getResourceAsStream(MemberListFixtures.RANKS))
+        {
+            if (in == null)
+            {
+                throw new IOException("Missing test resource " + MemberListFixtures.RANKS);
+            }
+            return RankDataParser.readSheet(new InputStreamReader(in, StandardCharsets.UTF_8), 0, 1, true);
+        }
+    }
+}
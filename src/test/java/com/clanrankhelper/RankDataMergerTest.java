@@ -0,0 +1,110 @@
+package com.clanrankhelper;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RankDataMergerTest
+{
+    private static final String SHEET = "https://docs.google.com/spreadsheets/d/sheet/export?format=csv";
+    private static final String API = "https://example.com/ranks";
+
+    @Test
+    public void firstSourceWinsConflicts()
+    {
+        RankDataMerger.Result result = RankDataMerger.merge(sources(), SourcePrecedence.FIRST_WINS);
+
+        assertEquals("General", rankOf(result, "alice"));
+        assertEquals(1, result.getConflicts().size());
+        RankDataMerger.Conflict conflict = result.getConflicts().get(0);
+        assertEquals("General", conflict.getKeptRank());
+        assertEquals(SHEET, conflict.getKeptSource());
+        assertEquals("Captain", conflict.getIgnoredRank());
+        assertEquals(API, conflict.getIgnoredSource());
+    }
+
+    @Test
+    public void lastSourceWinsConflicts()
+    {
+        RankDataMerger.Result result = RankDataMerger.merge(sources(), SourcePrecedence.LAST_WINS);
+
+        assertEquals("Captain", rankOf(result, "alice"));
+        assertEquals(1, result.getConflicts().size());
+        assertEquals(API, result.getConflicts().get(0).getKeptSource());
+    }
+
+    @Test
+    public void playersInOneSourceAreKept()
+    {
+        RankDataMerger.Result result = RankDataMerger.merge(sources(), SourcePrecedence.FIRST_WINS);
+
+        assertEquals("Sergeant", rankOf(result, "bob"));
+        assertEquals("Recruit", rankOf(result, "carol"));
+        assertEquals(3, result.getRanks().size());
+    }
+
+    @Test
+    public void sameRankIsNotAConflict()
+    {
+        Map<String, Map<String, String>> sources = new LinkedHashMap<>();
+        sources.put(SHEET, ranks("alice", "General"));
+        sources.put(API, ranks("alice", "general"));
+
+        RankDataMerger.Result result = RankDataMerger.merge(sources, SourcePrecedence.FIRST_WINS);
+
+        assertTrue(result.getConflicts().isEmpty());
+        assertEquals(1, result.getRanks().size());
+    }
+
+    @Test
+    public void spellingsWithinOneSourceAreNotConflicts()
+    {
+        Map<String, Map<String, String>> sources = new LinkedHashMap<>();
+        sources.put(SHEET, ranks("iron man", "General", "iron_man", "Captain"));
+        sources.put(API, ranks("ironman", "Sergeant"));
+
+        RankDataMerger.Result result = RankDataMerger.merge(sources, SourcePrecedence.FIRST_WINS);
+
+        // Only the other source disagreeing is reported
+        assertEquals(1, result.getRanks().size());
+        assertEquals(1, result.getConflicts().size());
+        assertEquals(API, result.getConflicts().get(0).getIgnoredSource());
+    }
+
+    // Alice differs between the sources, Bob and Carol are only in one each
+    private static Map<String, Map<String, String>> sources()
+    {
+        Map<String, Map<String, String>> sources = new LinkedHashMap<>();
+        sources.put(SHEET, ranks("alice", "General", "bob", "Sergeant"));
+        sources.put(API, ranks("Alice", "Captain", "carol", "Recruit"));
+        return sources;
+    }
+
+    // Rank of a player whichever source's spelling of the name was kept
+    private static String rankOf(RankDataMerger.Result result, String name)
+    {
+        for (Map.Entry<String, String> entry : result.getRanks().entrySet())
+        {
+            if (RankText.normalizeName(entry.getKey()).equals(RankText.normalizeName(name)))
+            {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, String> ranks(String... nameRankPairs)
+    {
+        Map<String, String> ranks = new HashMap<>();
+        for (int i = 0; i < nameRankPairs.length; i += 2)
+        {
+            ranks.put(nameRankPairs[i], nameRankPairs[i + 1]);
+        }
+        return ranks;
+    }
+}
@@ -0,0 +1,98 @@
+package com.clanrankhelper;
+
+import com.google.gson.stream.JsonReader;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RankDataParserTest
+{
+    @Test
+    public void plainArrayIsASnapshot() throws IOException
+    {
+        RankDataParser.ApiResponse response = parse("[{\"mainRSN\": \"Alice\", \"osrsName\": \"General\"}]");
+
+        assertFalse(response.isDelta());
+        assertEquals(Collections.singletonMap("alice", "General"), response.getEntries());
+        assertNull(response.getCursor());
+    }
+
+    @Test
+    public void snapshotObjectCarriesTheCursor() throws IOException
+    {
+        RankDataParser.ApiResponse response = parse(
+            "{\"cursor\": \"v1\", \"entries\": [{\"mainRSN\": \"Alice\", \"osrsName\": \"General\"}]}");
+
+        assertFalse(response.isDelta());
+        assertEquals(1, response.getEntries().size());
+        assertEquals("v1", response.getCursor());
+    }
+
+    @Test
+    public void deltaObject() throws IOException
+    {
+        RankDataParser.ApiResponse response = parse("{\"cursor\": \"v2\", "
+            + "\"upserts\": [{\"mainRSN\": \"Bob\", \"osrsName\": \"Captain\"}], \"removals\": [\"Carol\"]}");
+
+        assertTrue(response.isDelta());
+        assertEquals(Collections.singletonMap("bob", "Captain"), response.getUpserts());
+        assertEquals(Collections.singleton("carol"), response.getRemovals());
+        assertEquals("v2", response.getCursor());
+    }
+
+    @Test(expected = IOException.class)
+    public void unrecognizedObjectIsRejected() throws IOException
+    {
+        parse("{\"error\": \"rate limited\"}");
+    }
+
+    @Test
+    public void deltaAppliesUpsertsAndRemovals() throws IOException
+    {
+        Map<String, String> base = new HashMap<>();
+        base.put("alice", "General");
+        base.put("bob", "Sergeant");
+        base.put("carol", "Recruit");
+
+        RankDataParser.ApiResponse delta = parse("{\"upserts\": [{\"mainRSN\": \"Bob\", \"osrsName\": \"Captain\"},"
+            + " {\"mainRSN\": \"Dave\", \"osrsName\": \"Corporal\"}], \"removals\": [\"Carol\"]}");
+        Map<String, String> result = delta.applyTo(base);
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("alice", "General");
+        expected.put("bob", "Captain");
+        expected.put("dave", "Corporal");
+        assertEquals(expected, result);
+        // The base is left alone, it may still be in use
+        assertEquals(3, base.size());
+        assertEquals("Sergeant", base.get("bob"));
+    }
+
+    @Test
+    public void deltaMatchesNamesByNormalizedName() throws IOException
+    {
+        Map<String, String> base = new HashMap<>();
+        base.put("iron man", "General");
+        base.put("zezima", "Captain");
+
+        RankDataParser.ApiResponse delta = parse("{\"upserts\": [{\"mainRSN\": \"Iron_Man\", \"osrsName\": \"Owner\"}],"
+            + " \"removals\": [\"ZEZIMA\"]}");
+
+        // The new spelling replaces the old one instead of joining it
+        assertEquals(Collections.singletonMap("iron_man", "Owner"), delta.applyTo(base));
+    }
+
+    private static RankDataParser.ApiResponse parse(String json) throws IOException
+    {
+        return RankDataParser.readApiResponse(new JsonReader(new StringReader(json)));
+    }
+}
@@ -0,0 +1,61 @@
+package com.clanrankhelper;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RankDatasetTest
+{
+    @Test
+    public void unchangedDataHasNoChangedPlayers()
+    {
+        RankDataset previous = RankDataset.of(ranks("alice", "General", "bob", "Captain"));
+        RankDataset current = RankDataset.of(ranks("alice", "General", "bob", "Captain"));
+
+        assertTrue(current.changedPlayers(previous).isEmpty());
+    }
+
+    @Test
+    public void addedRemovedAndRerankedPlayersAreChanged()
+    {
+        RankDataset previous = RankDataset.of(ranks("alice", "General", "bob", "Captain", "carol", "Sergeant"));
+        RankDataset current = RankDataset.of(ranks("alice", "General", "bob", "Lieutenant", "dave", "Recruit"));
+
+        assertEquals(new HashSet<>(Arrays.asList("bob", "carol", "dave")), current.changedPlayers(previous));
+    }
+
+    @Test
+    public void changesAreKeyedByNormalizedName()
+    {
+        RankDataset previous = RankDataset.of(ranks("Iron\u00A0Man", "Captain"));
+        RankDataset current = RankDataset.of(ranks("iron man", "General"));
+
+        assertEquals(Collections.singleton(RankText.normalizeName("Iron Man")), current.changedPlayers(previous));
+    }
+
+    @Test
+    public void everyPlayerChangesAgainstEmpty()
+    {
+        RankDataset current = RankDataset.of(ranks("alice", "General", "bob", "Captain"));
+
+        assertEquals(new HashSet<>(Arrays.asList("alice", "bob")), current.changedPlayers(RankDataset.EMPTY));
+        assertEquals(new HashSet<>(Arrays.asList("alice", "bob")), RankDataset.EMPTY.changedPlayers(current));
+    }
+
+    private static Map<String, String> ranks(String... nameRankPairs)
+    {
+        Map<String, String> ranks = new HashMap<>();
+        for (int i = 0; i < nameRankPairs.length; i += 2)
+        {
+            ranks.put(nameRankPairs[i], nameRankPairs[i + 1]);
+        }
+        return ranks;
+    }
+}
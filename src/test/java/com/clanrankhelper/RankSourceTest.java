@@ -0,0 +1,50 @@
+package com.clanrankhelper;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class RankSourceTest
+{
+    @Test
+    public void invalidUrlsAreSkipped()
+    {
+        List<RankSource> sources = RankSource.allFromConfig(config("ftp://example.com/ranks",
+            "not a url\nhttps://example.com/ranks\n\nhttps://example.com/ranks"));
+
+        assertEquals(1, sources.size());
+        assertEquals("https://example.com/ranks", sources.get(0).getUrl());
+    }
+
+    @Test
+    public void labelsTellSourcesApart()
+    {
+        List<RankSource> sources = RankSource.allFromConfig(config("https://example.com/api/ranks",
+            "https://docs.google.com/spreadsheets/d/1AbCdEfGhIjKlMnOp/edit#gid=42\nhttps://example.org/"));
+
+        assertEquals(3, sources.size());
+        assertEquals("API example.com/api/ranks", sources.get(0).getLabel());
+        assertEquals("Google Sheets 1AbCdEfG gid 42", sources.get(1).getLabel());
+        assertEquals("API example.org", sources.get(2).getLabel());
+    }
+
+    private static ClanRankHelperConfig config(String apiUrl, String additionalSources)
+    {
+        return new ClanRankHelperConfig()
+        {
+            @Override
+            public String apiUrl()
+            {
+                return apiUrl;
+            }
+
+            @Override
+            public String additionalSources()
+            {
+                return additionalSources;
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.clanrankhelper;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+public class RefreshSchedulerTest
+{
+    private static final long INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    // Enough tries that jitter in either direction shows up
+    private static final int TRIES = 1000;
+
+    @Test
+    public void successWaitsTheIntervalWithJitter()
+    {
+        RefreshScheduler scheduler = newScheduler();
+        for (int i = 0; i < TRIES; i++)
+        {
+            assertAround(INTERVAL, scheduler.nextDelay(FetchResult.OK));
+        }
+    }
+
+    @Test
+    public void failuresBackOffExponentiallyUpToTheCap()
+    {
+        RefreshScheduler scheduler = newScheduler();
+        long[] expected = {2 * INTERVAL, 4 * INTERVAL, 8 * INTERVAL, 16 * INTERVAL, 16 * INTERVAL};
+        for (long backoff : expected)
+        {
+            assertAround(backoff, scheduler.nextDelay(FetchResult.FAILED));
+        }
+
+        // A success starts over
+        scheduler.nextDelay(FetchResult.OK);
+        assertAround(2 * INTERVAL, scheduler.nextDelay(FetchResult.FAILED));
+    }
+
+    @Test
+    public void jitterNeverUndercutsRetryAfter()
+    {
+        // Just above the first backoff, so jitter would often go below it
+        long retryAfter = 2 * INTERVAL + 1000;
+        for (int i = 0; i < TRIES; i++)
+        {
+            long delay = newScheduler().nextDelay(FetchResult.failedRetryAfter(retryAfter));
+            assertTrue(delay + " < " + retryAfter, delay >= retryAfter);
+        }
+    }
+
+    @Test
+    public void hugeRetryAfterStillRetriesWithinTheCap()
+    {
+        FetchResult rateLimited = FetchResult.failedRetryAfter(FetchResult.parseRetryAfter("99999999", 0));
+        for (int i = 0; i < TRIES; i++)
+        {
+            long delay = newScheduler().nextDelay(rateLimited);
+            assertTrue(delay + " > " + FetchResult.MAX_RETRY_AFTER_MILLIS,
+                delay <= FetchResult.MAX_RETRY_AFTER_MILLIS);
+        }
+    }
+
+    private static RefreshScheduler newScheduler()
+    {
+        return new RefreshScheduler(null, () -> FetchResult.OK, () -> 1, () -> false);
+    }
+
+    private static void assertAround(long expected, long actual)
+    {
+        assertTrue(actual + " not within 10% of " + expected,
+            actual >= expected * 0.9 && actual <= expected * 1.1);
+    }
+}
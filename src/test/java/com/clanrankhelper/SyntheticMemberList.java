@@ -0,0 +1,250 @@
+package com.clanrankhelper;
+
+import net.runelite.api.Client;
+import net.runelite.api.clan.ClanMember;
+import net.runelite.api.clan.ClanRank;
+import net.runelite.api.clan.ClanSettings;
+import net.runelite.api.clan.ClanTitle;
+import net.runelite.api.widgets.Widget;
+
+import java.awt.Rectangle;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory stand-in for the clan settings interface (group 693): a member
+ * list with a name column and rank/world cells per row, and a matching clan
+ * roster, behind proxy {@link Widget}s and a proxy {@link Client}.
+ *
+ * Rows are laid out like the real list: every row exists, its bounds move
+ * with the scroll position and only the ones inside the panel are visible.
+ * Used by the benchmarks, and to generate the replay test fixtures (see
+ * {@link MemberListFixtures}).
+ */
+final class SyntheticMemberList
+{
+    static final int PANEL_X = 20;
+    static final int PANEL_Y = 60;
+    static final int PANEL_WIDTH = 300;
+    static final int PANEL_HEIGHT = 280;
+    static final int ROW_HEIGHT = 20;
+
+    static final String[] RANKS = {"Recruit", "Corporal", "Sergeant", "Lieutenant", "Captain", "General"};
+
+    private final int rows;
+    private int scrollY;
+
+    private final Widget root;
+    private final Widget panel;
+    private final Widget nameColumn;
+    private final Client client;
+
+    // Player name -> target rank, the data the plugin would have fetched
+    private final Map<String, String> rankData = new HashMap<>();
+
+    /**
+     * @param rows       rows in the member list
+     * @param rosterSize players in the rank data and the clan roster; the
+     *                   first {@code rows} of them are in the member list
+     */
+    SyntheticMemberList(int rows, int rosterSize)
+    {
+        this.rows = rows;
+
+        int roster = Math.max(rows, rosterSize);
+        List<ClanMember> members = new ArrayList<>(roster);
+        for (int i = 0; i < roster; i++)
+        {
+            String name = playerName(i);
+            String currentRank = RANKS[i % RANKS.length];
+            // Every third player needs a promotion
+            String targetRank = i % 3 == 0 ? RANKS[(i + 1) % RANKS.length] : currentRank;
+            if (i < rosterSize)
+            {
+                rankData.put(name.toLowerCase(), targetRank);
+            }
+            members.add(clanMember(name, i % RANKS.length));
+        }
+
+        List<Widget> cells = new ArrayList<>(rows * 2);
+        List<Widget> names = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++)
+        {
+            int y = PANEL_Y + i * ROW_HEIGHT;
+            names.add(widget(new Node(playerName(i), PANEL_X + 5, y, 110, 15, true)));
+            cells.add(widget(new Node(RANKS[i % RANKS.length], PANEL_X + 120, y, 80, 15, true)));
+            cells.add(widget(new Node("W" + (301 + i % 150), PANEL_X + 205, y, 50, 15, true)));
+        }
+
+        Node panelNode = new Node(null, PANEL_X, PANEL_Y, PANEL_WIDTH, PANEL_HEIGHT, false);
+        panelNode.children = cells.toArray(new Widget[0]);
+        panel = widget(panelNode);
+
+        Node nameNode = new Node(null, PANEL_X, PANEL_Y, 120, PANEL_HEIGHT, false);
+        nameNode.children = names.toArray(new Widget[0]);
+        nameColumn = widget(nameNode);
+
+        root = widget(new Node(null, 0, 0, 765, 503, false));
+
+        ClanSettings settings = clanSettings(Collections.unmodifiableList(members));
+        client = Fakes.proxy(Client.class, (proxy, method, args) ->
+        {
+            switch (method.getName())
+            {
+                case "getWidget":
+                    if (args.length == 2 && (int) args[0] == MemberListWidgets.CLAN_SETTINGS_GROUP_ID)
+                    {
+                        switch ((int) args[1])
+                        {
+                            case 0:
+                                return root;
+                            case MemberListWidgets.CLAN_MEMBER_PANEL_CHILD:
+                                return panel;
+                            case MemberListWidgets.CLAN_MEMBER_NAME_CHILD:
+                                return nameColumn;
+                        }
+                    }
+                    return null;
+                case "getClanSettings":
+                    return settings;
+                default:
+                    return Fakes.defaultValue(proxy, method, args);
+            }
+        });
+    }
+
+    static String playerName(int i)
+    {
+        return String.format("Player %05d", i);
+    }
+
+    Client getClient()
+    {
+        return client;
+    }
+
+    Map<String, String> getRankData()
+    {
+        return rankData;
+    }
+
+    /**
+     * Scrolls down by one row, wrapping around at the end of the list.
+     */
+    void scrollOneRow()
+    {
+        int maxScroll = Math.max(0, rows * ROW_HEIGHT - PANEL_HEIGHT);
+        scrollY = scrollY + ROW_HEIGHT > maxScroll ? 0 : scrollY + ROW_HEIGHT;
+    }
+
+    /**
+     * A plugin holding {@code rankData}, as if it had just been fetched.
+     */
+    static ClanRankHelperPlugin newPlugin(ClanRankHelperConfig config, Map<String, String> rankData)
+        throws ReflectiveOperationException
+    {
+        ClanRankHelperPlugin plugin = new ClanRankHelperPlugin();
+        setField(plugin, "config", config);
+        setField(plugin, "configSnapshot", RankConfigSnapshot.from(config));
+        setField(plugin, "dataset", RankDataset.of(rankData));
+        return plugin;
+    }
+
+    static void setField(Object target, String name, Object value) throws ReflectiveOperationException
+    {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private final class Node
+    {
+        private final String text;
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+        // Rows move with the scroll position, the panel itself doesn't
+        private final boolean scrolls;
+        private Widget[] children;
+
+        private Node(String text, int x, int y, int width, int height, boolean scrolls)
+        {
+            this.text = text;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.scrolls = scrolls;
+        }
+
+        private Rectangle bounds()
+        {
+            return new Rectangle(x, scrolls ? y - scrollY : y, width, height);
+        }
+    }
+
+    private Widget widget(Node node)
+    {
+        return Fakes.proxy(Widget.class, (proxy, method, args) ->
+        {
+            switch (method.getName())
+            {
+                case "getText":
+                    return node.text;
+                case "getBounds":
+                    return node.bounds();
+                case "getScrollY":
+                    return scrollY;
+                case "getChildren":
+                case "getDynamicChildren":
+                    return node.children;
+                default:
+                    return Fakes.defaultValue(proxy, method, args);
+            }
+        });
+    }
+
+    private static ClanMember clanMember(String name, int rank)
+    {
+        ClanRank clanRank = new ClanRank(rank);
+        return Fakes.proxy(ClanMember.class, (proxy, method, args) ->
+        {
+            switch (method.getName())
+            {
+                case "getName":
+                    return name;
+                case "getRank":
+                    return clanRank;
+                default:
+                    return Fakes.defaultValue(proxy, method, args);
+            }
+        });
+    }
+
+    private static ClanSettings clanSettings(List<ClanMember> members)
+    {
+        ClanTitle[] titles = new ClanTitle[RANKS.length];
+        for (int i = 0; i < RANKS.length; i++)
+        {
+            titles[i] = new ClanTitle(i, RANKS[i]);
+        }
+
+        return Fakes.proxy(ClanSettings.class, (proxy, method, args) ->
+        {
+            switch (method.getName())
+            {
+                case "getMembers":
+                    return members;
+                case "titleForRank":
+                    return titles[((ClanRank) args[0]).getRank()];
+                default:
+                    return Fakes.defaultValue(proxy, method, args);
+            }
+        });
+    }
+}
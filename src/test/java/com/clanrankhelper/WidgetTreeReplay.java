@@ -0,0 +1,180 @@
+package com.clanrankhelper;
+
+import net.runelite.api.Client;
+import net.runelite.api.widgets.Widget;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fake {@link Client} that shows the frames of a
+ * {@link WidgetTreeRecording} one at a time, behind proxy {@link Widget}s.
+ *
+ * The widgets of every frame are built up front, so switching frames during
+ * a measurement costs nothing. Like the real client, {@code getBounds()}
+ * returns a new rectangle on every call.
+ */
+final class WidgetTreeReplay
+{
+    private static final Widget[] NO_WIDGETS = new Widget[0];
+
+    private final int groupId;
+    private final List<Widget[]> frames = new ArrayList<>();
+    private final Client client;
+
+    // Components of the frame on screen, by child id
+    private Widget[] components = NO_WIDGETS;
+
+    private WidgetTreeReplay(int groupId, List<WidgetTreeRecording.Frame> recording)
+    {
+        this.groupId = groupId;
+        for (WidgetTreeRecording.Frame frame : recording)
+        {
+            frames.add(buildFrame(frame));
+        }
+
+        client = Fakes.proxy(Client.class, (proxy, method, args) ->
+        {
+            if (method.getName().equals("getWidget") && args.length == 2 && (int) args[0] == groupId)
+            {
+                int child = (int) args[1];
+                return child >= 0 && child < components.length ? components[child] : null;
+            }
+            return Fakes.defaultValue(proxy, method, args);
+        });
+    }
+
+    /**
+     * Loads a recording from the test resources next to this class.
+     */
+    static WidgetTreeReplay load(String resource, int groupId) throws IOException
+    {
+        try (InputStream in = WidgetTreeReplay.class.getResourceAsStream(resource))
+        {
+            if (in == null)
+            {
+                throw new IOException("Missing test resource " + resource);
+            }
+            return new WidgetTreeReplay(groupId, WidgetTreeRecording.read(in));
+        }
+    }
+
+    Client getClient()
+    {
+        return client;
+    }
+
+    int getFrameCount()
+    {
+        return frames.size();
+    }
+
+    void show(int frame)
+    {
+        components = frames.get(frame);
+    }
+
+    private Widget[] buildFrame(WidgetTreeRecording.Frame frame)
+    {
+        int size = 0;
+        for (WidgetTreeRecording.Node node : frame.getComponents())
+        {
+            size = Math.max(size, node.getChild() + 1);
+        }
+
+        FakeWidget[] fakes = new FakeWidget[size];
+        Widget[] widgets = new Widget[size];
+        for (WidgetTreeRecording.Node node : frame.getComponents())
+        {
+            FakeWidget fake = new FakeWidget(node, (groupId << 16) | node.getChild(), -1);
+            fakes[node.getChild()] = fake;
+            widgets[node.getChild()] = fake.widget;
+
+            List<WidgetTreeRecording.Node> children = node.getDynamicChildren();
+            fake.dynamicChildren = new Widget[children.size()];
+            for (int i = 0; i < children.size(); i++)
+            {
+                FakeWidget child = new FakeWidget(children.get(i), fake.id, children.get(i).getIndex());
+                child.parent = fake.widget;
+                fake.dynamicChildren[i] = child.widget;
+            }
+        }
+
+        // Static children are the components that name this one as parent
+        for (FakeWidget fake : fakes)
+        {
+            if (fake == null)
+            {
+                continue;
+            }
+
+            List<Widget> staticChildren = new ArrayList<>();
+            for (FakeWidget other : fakes)
+            {
+                if (other != null && other.node.getParent() == fake.node.getChild())
+                {
+                    staticChildren.add(other.widget);
+                    other.parent = fake.widget;
+                }
+            }
+            fake.staticChildren = staticChildren.toArray(NO_WIDGETS);
+        }
+        return widgets;
+    }
+
+    private static final class FakeWidget
+    {
+        private final WidgetTreeRecording.Node node;
+        private final int id;
+        private final int index;
+        private final Widget widget;
+        private Widget parent;
+        private Widget[] dynamicChildren = NO_WIDGETS;
+        private Widget[] staticChildren = NO_WIDGETS;
+
+        private FakeWidget(WidgetTreeRecording.Node node, int id, int index)
+        {
+            this.node = node;
+            this.id = id;
+            this.index = index;
+            this.widget = Fakes.proxy(Widget.class, this::invoke);
+        }
+
+        private Object invoke(Object proxy, Method method, Object[] args)
+        {
+            switch (method.getName())
+            {
+                case "getId":
+                    return id;
+                case "getIndex":
+                    return index;
+                case "getParent":
+                    return parent;
+                case "getParentId":
+                    return parent != null ? parent.getId() : -1;
+                case "getText":
+                    return node.getText();
+                case "isHidden":
+                case "isSelfHidden":
+                    return node.isHidden();
+                case "getBounds":
+                    return new Rectangle(node.getBounds());
+                case "getScrollY":
+                    return node.getScrollY();
+                case "getChildren":
+                case "getDynamicChildren":
+                    return dynamicChildren;
+                case "getStaticChildren":
+                    return staticChildren;
+                case "getNestedChildren":
+                    return NO_WIDGETS;
+                default:
+                    return Fakes.defaultValue(proxy, method, args);
+            }
+        }
+    }
+}